@@ -1,8 +1,10 @@
 package com.onlinepharmacy.backend.config;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class AppConfig {
@@ -10,4 +12,36 @@ public class AppConfig {
     public ModelMapper modelMapper(){
         return new ModelMapper();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ThreadPoolTaskExecutor productImportExecutor(@Value("${app.import.workers:2}") int workers,
+                                                        @Value("${app.import.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-import-");
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor imageProcessingExecutor(@Value("${app.image.workers:2}") int workers,
+                                                          @Value("${app.image.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variants-");
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor bulkImageExecutor(@Value("${app.image.bulk-workers:4}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers * 2);
+        executor.setThreadNamePrefix("bulk-image-");
+        return executor;
+    }
+}
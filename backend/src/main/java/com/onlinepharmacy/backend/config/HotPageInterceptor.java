@@ -0,0 +1,127 @@
+package com.onlinepharmacy.backend.config;
+
+import com.onlinepharmacy.backend.service.HotPageSnapshotService;
+import com.onlinepharmacy.backend.service.HotPageSnapshotService.PageSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+// Answers default-paged hot listing requests straight from the snapshot bytes, skipping the
+// controller, service and message converters; anything else falls through to the normal handler.
+// The gzip body is a different representation, so it carries its own strong ETag.
+@Component
+public class HotPageInterceptor implements HandlerInterceptor {
+
+    private static final String ALL_PRODUCTS_PATH = "/api/public/products";
+    private static final String CATEGORY_PREFIX = "/api/public/categories/";
+    private static final String CATEGORY_SUFFIX = "/products";
+
+    private final HotPageSnapshotService snapshotService;
+
+    public HotPageInterceptor(HotPageSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        PageSnapshot snapshot = lookup(request);
+        if (snapshot == null) {
+            return true;
+        }
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String gzipEtag = gzipEtag(snapshot.etag());
+        response.setHeader(HttpHeaders.ETAG, gzip ? gzipEtag : snapshot.etag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (matches(ifNoneMatch, snapshot.etag()) || matches(ifNoneMatch, gzipEtag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        byte[] body = snapshot.json();
+        if (gzip) {
+            body = snapshot.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return false;
+    }
+
+    private PageSnapshot lookup(HttpServletRequest request) {
+        if (!isDefault(request, "pageSize", AppConstants.PAGE_SIZE)
+                || !isDefault(request, "sortBy", AppConstants.SORT_PRODUCTS_BY)
+                || !isDefault(request, "sortOrder", AppConstants.SORT_DIR)
+                || request.getParameter("after") != null) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String pageParam = request.getParameter("pageNumber");
+        int pageNumber;
+        try {
+            pageNumber = pageParam == null ? 0 : Integer.parseInt(pageParam);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (path.equals(ALL_PRODUCTS_PATH)) {
+            return snapshotService.isHotPage(pageNumber) ? snapshotService.allProductsPage(pageNumber) : null;
+        }
+        if (pageNumber == 0 && path.startsWith(CATEGORY_PREFIX) && path.endsWith(CATEGORY_SUFFIX)) {
+            try {
+                Long categoryId = Long.valueOf(path.substring(CATEGORY_PREFIX.length(), path.length() - CATEGORY_SUFFIX.length()));
+                return snapshotService.categoryFirstPage(categoryId);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isDefault(HttpServletRequest request, String name, String defaultValue) {
+        String value = request.getParameter(name);
+        return value == null || value.equals(defaultValue);
+    }
+
+    // "c1-2" becomes "c1-2-gzip"; the suffix goes inside the quotes.
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -1,24 +1,20 @@
 package com.onlinepharmacy.backend.config;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
-    @Value("${backend.image:images/}")
-    private String imageDir;
+    private final HotPageInterceptor hotPageInterceptor;
+    public WebMvcConfig(HotPageInterceptor hotPageInterceptor) {
+        this.hotPageInterceptor = hotPageInterceptor;
+    }
     @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path dir = Paths.get(imageDir).toAbsolutePath().normalize();
-        String location = "file:" + dir.toString() + "/";
-        registry.addResourceHandler("/images/**")
-                .addResourceLocations(location);
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(hotPageInterceptor)
+                .addPathPatterns("/api/public/products", "/api/public/categories/*/products");
     }
     @Override
     public void addCorsMappings(CorsRegistry registry) {
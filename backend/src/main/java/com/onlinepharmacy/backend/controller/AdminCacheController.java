@@ -0,0 +1,29 @@
+package com.onlinepharmacy.backend.controller;
+
+import com.onlinepharmacy.backend.payload.CacheStatsResponse;
+import com.onlinepharmacy.backend.service.ImageServingService;
+import com.onlinepharmacy.backend.service.ProductCacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class AdminCacheController {
+    private final ProductCacheService productCacheService;
+    private final ImageServingService imageServingService;
+    public AdminCacheController(ProductCacheService productCacheService, ImageServingService imageServingService) {
+        this.productCacheService = productCacheService;
+        this.imageServingService = imageServingService;
+    }
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsResponse>> getStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>(productCacheService.getStats());
+        stats.add(imageServingService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -3,19 +3,38 @@ package com.onlinepharmacy.backend.controller;
 import com.onlinepharmacy.backend.model.Category;
 import com.onlinepharmacy.backend.model.Product;
 import com.onlinepharmacy.backend.payload.AdminProductResponse;
+import com.onlinepharmacy.backend.payload.BulkImageUploadResponse;
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateRequest;
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateResponse;
 import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.payload.ProductImportJobResponse;
 import com.onlinepharmacy.backend.payload.ProductRequest;
 import com.onlinepharmacy.backend.repositories.CategoryRepository;
 import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductAdminView;
+import com.onlinepharmacy.backend.service.BulkImageUploadService;
+import com.onlinepharmacy.backend.service.CatalogFormat;
+import com.onlinepharmacy.backend.service.FileService;
+import com.onlinepharmacy.backend.service.ProductChangedEvent;
+import com.onlinepharmacy.backend.service.ProductExportService;
+import com.onlinepharmacy.backend.service.ProductImageChangedEvent;
+import com.onlinepharmacy.backend.service.ProductImportService;
 import com.onlinepharmacy.backend.service.ProductService;
 import com.onlinepharmacy.backend.service.StockNotificationService;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/admin/products")
@@ -25,14 +44,29 @@ public class AdminProductController {
     private final CategoryRepository categoryRepository;
     private final ProductService productService;
     private final StockNotificationService stockNotificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
+    private final FileService fileService;
+    private final BulkImageUploadService bulkImageUploadService;
     public AdminProductController(ProductRepository productRepository,
                                   CategoryRepository categoryRepository,
                                   ProductService productService,
-                                  com.onlinepharmacy.backend.service.StockNotificationService stockNotificationService) {
+                                  com.onlinepharmacy.backend.service.StockNotificationService stockNotificationService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ProductImportService productImportService,
+                                  ProductExportService productExportService,
+                                  FileService fileService,
+                                  BulkImageUploadService bulkImageUploadService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.productService = productService;
         this.stockNotificationService = stockNotificationService;
+        this.eventPublisher = eventPublisher;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.fileService = fileService;
+        this.bulkImageUploadService = bulkImageUploadService;
     }
     private AdminProductResponse toResponse(Product p) {
         return new AdminProductResponse(
@@ -48,11 +82,25 @@ public class AdminProductController {
                 p.getCategory() != null ? p.getCategory().getCategoryName() : null
         );
     }
+    private AdminProductResponse toResponse(ProductAdminView v) {
+        return new AdminProductResponse(
+                v.productId(),
+                v.productName(),
+                v.image(),
+                v.description(),
+                v.quantity(),
+                v.price(),
+                v.discount(),
+                v.specialPrice(),
+                v.categoryId(),
+                v.categoryName()
+        );
+    }
     @GetMapping
     public ResponseEntity<List<AdminProductResponse>> getAll(@RequestParam(required = false) Long categoryId) {
-        List<Product> products = (categoryId == null)
-                ? productRepository.findAll()
-                : productRepository.findByCategory_CategoryId(categoryId);
+        List<ProductAdminView> products = (categoryId == null)
+                ? productRepository.findAdminViews()
+                : productRepository.findAdminViewsByCategory(categoryId);
 
         return ResponseEntity.ok(products.stream().map(this::toResponse).toList());
     }
@@ -78,15 +126,48 @@ public class AdminProductController {
         p.setCategory(category);
 
         Product saved = productRepository.save(p);
+        fileService.retainImage(saved.getImage());
+        eventPublisher.publishEvent(ProductChangedEvent.of(saved.getProductId()));
         return ResponseEntity.ok(toResponse(saved));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportJobResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        CatalogFormat format = CatalogFormat.fromContentType(contentType);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImportService.startImport(body, format));
+    }
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "includeDetails", defaultValue = "false") boolean includeDetails
+    ) {
+        CatalogFormat catalogFormat = CatalogFormat.fromName(format);
+        StreamingResponseBody body = out -> productExportService.export(out, catalogFormat, includeDetails);
+        return ResponseEntity.ok()
+                .contentType(catalogFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + catalogFormat.getExtension() + "\"")
+                .body(body);
+    }
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportJobResponse> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getJob(jobId));
+    }
+    @PostMapping("/bulk-pricing")
+    public ResponseEntity<BulkPriceUpdateResponse> bulkUpdatePrices(@Valid @RequestBody BulkPriceUpdateRequest req) {
+        return ResponseEntity.ok(productService.bulkUpdatePrices(req));
+    }
     @PutMapping("/{id}")
     public ResponseEntity<AdminProductResponse> update(@PathVariable Long id, @Valid @RequestBody ProductRequest req) {
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found: " + id));
 
         int oldQty = existing.getQuantity() == null ? 0 : existing.getQuantity();
+        double oldPrice = existing.getPrice();
+        double oldDiscount = existing.getDiscount();
+        double oldSpecialPrice = existing.getSpecialPrice();
 
         Category category = categoryRepository.findById(req.getCategoryId())
                 .orElseThrow(() -> new RuntimeException("Category not found: " + req.getCategoryId()));
@@ -95,6 +176,7 @@ public class AdminProductController {
         existing.setQuantity(req.getQuantity());
         existing.setPrice(req.getPrice());
 
+        String previousImage = existing.getImage();
         if (req.getImage() != null && !req.getImage().isBlank()) {
             existing.setImage(req.getImage());
         }
@@ -105,17 +187,29 @@ public class AdminProductController {
                 ? req.getSpecialPrice()
                 : (req.getPrice() - ((discount * 0.01) * req.getPrice()));
         existing.setSpecialPrice(specialPrice);
+        if (oldPrice != existing.getPrice() || oldDiscount != discount || oldSpecialPrice != specialPrice) {
+            existing.setPriceVersion(existing.getPriceVersion() + 1);
+        }
 
         existing.setCategory(category);
+        boolean imageChanged = !Objects.equals(previousImage, existing.getImage());
+        if (imageChanged) {
+            existing.setImageVariants(0);
+        }
 
         Product saved = productRepository.save(existing);
-
+        if (imageChanged) {
+            fileService.retainImage(saved.getImage());
+            fileService.releaseImage(previousImage);
+            eventPublisher.publishEvent(new ProductImageChangedEvent(id, saved.getImage()));
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
 
         stockNotificationService.onProductQuantityChanged(saved, oldQty);
 
         return ResponseEntity.ok(toResponse(saved));
     }
-    @PutMapping("/{id}/image")
+    @PutMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<AdminProductResponse> uploadProductImage(
             @PathVariable Long id,
             @RequestParam("image") MultipartFile image
@@ -128,12 +222,30 @@ public class AdminProductController {
 
         return ResponseEntity.ok(toResponse(updated));
     }
+    @PutMapping(value = "/{id}/image", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<AdminProductResponse> streamProductImage(
+            @PathVariable Long id,
+            InputStream body
+    ) throws IOException {
+        productService.updateProductImage(id, body);
+
+        Product updated = productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found: " + id));
+
+        return ResponseEntity.ok(toResponse(updated));
+    }
+    @PostMapping(value = "/images/bulk", consumes = {"application/zip", "application/x-zip-compressed"})
+    public ResponseEntity<BulkImageUploadResponse> bulkUploadImages(InputStream body) {
+        return ResponseEntity.ok(bulkImageUploadService.upload(body));
+    }
     @DeleteMapping("/{id}")
     public ResponseEntity<String> delete(@PathVariable Long id) {
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found: " + id));
 
         productRepository.delete(existing);
+        fileService.releaseImage(existing.getImage());
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
         return ResponseEntity.ok("Deleted product " + id);
     }
 }
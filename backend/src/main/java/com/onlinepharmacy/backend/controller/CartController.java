@@ -1,11 +1,11 @@
 package com.onlinepharmacy.backend.controller;
 
-import com.onlinepharmacy.backend.model.Cart;
 import com.onlinepharmacy.backend.payload.CartDTO;
 import com.onlinepharmacy.backend.payload.CartItemDTO;
-import com.onlinepharmacy.backend.repositories.CartRepository;
+import com.onlinepharmacy.backend.payload.CartMutationRequest;
 import com.onlinepharmacy.backend.service.CartService;
 import com.onlinepharmacy.backend.util.AuthUtil;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,8 +17,6 @@ import java.util.List;
 @RequestMapping("/api")
 public class CartController {
 
-    @Autowired
-    private CartRepository cartRepository;
     @Autowired
     private AuthUtil authUtil;
     @Autowired
@@ -41,10 +39,12 @@ public class CartController {
     }
     @GetMapping("/carts/users/cart")
     public ResponseEntity<CartDTO> getCartById(){
-        String emailId = authUtil.loggedInEmail();
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        Long cartId = cart.getCartId();
-        CartDTO cartDTO = cartService.getCart(emailId, cartId);
+        CartDTO cartDTO = cartService.getUserCart(authUtil.loggedInUserName());
+        return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
+    }
+    @PatchMapping("/carts/users/cart")
+    public ResponseEntity<CartDTO> mutateCart(@Valid @RequestBody CartMutationRequest request) {
+        CartDTO cartDTO = cartService.applyCartOperations(request.getOperations());
         return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
     }
     @PutMapping("/cart/products/{productId}/quantity/{operation}")
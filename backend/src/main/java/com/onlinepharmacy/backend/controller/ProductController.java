@@ -1,21 +1,30 @@
 package com.onlinepharmacy.backend.controller;
 
+import com.onlinepharmacy.backend.payload.FacetedProductResponse;
 import com.onlinepharmacy.backend.payload.ProductDTO;
 import com.onlinepharmacy.backend.payload.ProductResponse;
+import com.onlinepharmacy.backend.payload.SuggestionDTO;
+import com.onlinepharmacy.backend.service.CatalogVersionService;
 import com.onlinepharmacy.backend.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
     @Autowired
     private ProductService productService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
     @PostMapping("/admin/categories/{categoryId}/product")
     public ResponseEntity<ProductDTO> addProduct(@PathVariable Long categoryId,
                                                  @RequestBody ProductDTO productDTO) {
@@ -27,13 +36,55 @@ public class ProductController {
             @RequestParam(name = "pageNumber", defaultValue = "0", required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = "50", required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = "productId", required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder
+            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "includeTotal", defaultValue = "false", required = false) Boolean includeTotal,
+            WebRequest webRequest
     ) {
+        if (webRequest.checkNotModified(catalogVersionService.catalogEtag())) {
+            return null;
+        }
+        if (after != null) {
+            return new ResponseEntity<>(productService.scrollProducts(null, null, after, pageSize, sortBy, sortOrder, includeTotal), HttpStatus.OK);
+        }
         ProductResponse response = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+    @GetMapping("/public/products/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggestProducts(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "10", required = false) Integer limit,
+            WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(catalogVersionService.catalogEtag())) {
+            return null;
+        }
+        return new ResponseEntity<>(productService.suggestProducts(query, limit), HttpStatus.OK);
+    }
+    @GetMapping("/public/products/browse")
+    public ResponseEntity<FacetedProductResponse> browseProducts(
+            @RequestParam(name = "category", required = false) List<Long> categoryIds,
+            @RequestParam(name = "price", required = false) List<String> priceRanges,
+            @RequestParam(name = "discount", required = false) List<String> discountRanges,
+            @RequestParam(name = "inStock", required = false) Boolean inStock,
+            @RequestParam(name = "pageNumber", defaultValue = "0", required = false) Integer pageNumber,
+            @RequestParam(name = "pageSize", defaultValue = "50", required = false) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = "productId", required = false) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder,
+            WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(catalogVersionService.catalogEtag())) {
+            return null;
+        }
+        FacetedProductResponse response = productService.browseProducts(categoryIds, priceRanges, discountRanges,
+                inStock, pageNumber, pageSize, sortBy, sortOrder);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
     @GetMapping("/public/products/{productId}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long productId) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long productId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersionService.productEtag(productId))) {
+            return null;
+        }
         ProductDTO dto = productService.getProductById(productId);
         return new ResponseEntity<>(dto, HttpStatus.OK);
     }
@@ -43,8 +94,17 @@ public class ProductController {
             @RequestParam(name = "pageNumber", defaultValue = "0", required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = "50", required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = "productId", required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder
+            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "includeTotal", defaultValue = "false", required = false) Boolean includeTotal,
+            WebRequest webRequest
     ) {
+        if (webRequest.checkNotModified(catalogVersionService.catalogEtag())) {
+            return null;
+        }
+        if (after != null) {
+            return new ResponseEntity<>(productService.scrollProducts(null, keyword, after, pageSize, sortBy, sortOrder, includeTotal), HttpStatus.OK);
+        }
         ProductResponse response = productService.searchProductByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -54,8 +114,17 @@ public class ProductController {
             @RequestParam(name = "pageNumber", defaultValue = "0", required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = "50", required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = "productId", required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder
+            @RequestParam(name = "sortOrder", defaultValue = "asc", required = false) String sortOrder,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "includeTotal", defaultValue = "false", required = false) Boolean includeTotal,
+            WebRequest webRequest
     ) {
+        if (webRequest.checkNotModified(catalogVersionService.catalogEtag())) {
+            return null;
+        }
+        if (after != null) {
+            return new ResponseEntity<>(productService.scrollProducts(categoryId, null, after, pageSize, sortBy, sortOrder, includeTotal), HttpStatus.OK);
+        }
         ProductResponse response = productService.searchByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
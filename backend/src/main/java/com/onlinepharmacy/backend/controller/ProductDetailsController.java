@@ -3,24 +3,34 @@ package com.onlinepharmacy.backend.controller;
 import com.onlinepharmacy.backend.payload.ProductDetailsRequest;
 import com.onlinepharmacy.backend.payload.ProductDetailsResponse;
 import com.onlinepharmacy.backend.payload.ProductFullResponse;
+import com.onlinepharmacy.backend.service.CatalogVersionService;
 import com.onlinepharmacy.backend.service.ProductDetailsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api")
 public class ProductDetailsController {
 
     private final ProductDetailsService service;
-    public ProductDetailsController(ProductDetailsService service) {
+    private final CatalogVersionService catalogVersionService;
+    public ProductDetailsController(ProductDetailsService service, CatalogVersionService catalogVersionService) {
         this.service = service;
+        this.catalogVersionService = catalogVersionService;
     }
     @GetMapping("/public/products/{id}/details")
-    public ResponseEntity<ProductDetailsResponse> getDetails(@PathVariable Long id) {
+    public ResponseEntity<ProductDetailsResponse> getDetails(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersionService.detailsEtag(id))) {
+            return null;
+        }
         return ResponseEntity.ok(service.getDetails(id));
     }
     @GetMapping("/public/products/{id}/full")
-    public ResponseEntity<ProductFullResponse> getFull(@PathVariable Long id) {
+    public ResponseEntity<ProductFullResponse> getFull(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersionService.productFullEtag(id))) {
+            return null;
+        }
         return ResponseEntity.ok(service.getProductFull(id));
     }
     @PutMapping("/admin/products/{id}/details")
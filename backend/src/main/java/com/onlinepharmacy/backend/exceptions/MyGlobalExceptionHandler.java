@@ -1,6 +1,8 @@
 package com.onlinepharmacy.backend.exceptions;
 
 import com.onlinepharmacy.backend.payload.APIResponse;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -35,4 +37,9 @@ public class MyGlobalExceptionHandler {
         APIResponse apiResponse = new APIResponse(message, false);
         return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
     }
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<APIResponse> myOptimisticLockingFailureException(RuntimeException e) {
+        APIResponse apiResponse = new APIResponse("The resource was modified concurrently, please retry", false);
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Cart;
+import com.onlinepharmacy.backend.model.CartItem;
+import com.onlinepharmacy.backend.payload.CartDTO;
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.repositories.projection.CartLineView;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class CartMapper {
+
+    private final ProductMapper productMapper;
+
+    public CartMapper(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    // Each line is reported as its product with the quantity held in the cart.
+    public CartDTO toDto(Cart cart) {
+        return toDto(cart, cart.getCartItems());
+    }
+
+    public CartDTO toDto(Cart cart, List<CartItem> lines) {
+        CartDTO dto = new CartDTO();
+        dto.setCartId(cart.getCartId());
+        dto.setTotalPrice(cart.getTotalPrice());
+        List<ProductDTO> products = new ArrayList<>(lines.size());
+        for (CartItem item : lines) {
+            products.add(toProductDto(item));
+        }
+        dto.setProducts(products);
+        return dto;
+    }
+
+    public CartDTO toDto(List<CartLineView> rows) {
+        CartDTO dto = new CartDTO();
+        dto.setCartId(rows.get(0).cartId());
+        dto.setTotalPrice(rows.get(0).totalPrice());
+        List<ProductDTO> products = new ArrayList<>(rows.size());
+        for (CartLineView row : rows) {
+            if (row.hasLine()) {
+                products.add(productMapper.toDto(row.product()));
+            }
+        }
+        dto.setProducts(products);
+        return dto;
+    }
+
+    public ProductDTO toProductDto(CartItem item) {
+        ProductDTO dto = productMapper.toDto(item.getProduct());
+        dto.setQuantity(item.getQuantity());
+        return dto;
+    }
+}
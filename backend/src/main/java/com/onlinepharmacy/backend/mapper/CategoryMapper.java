@@ -0,0 +1,27 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.payload.CategoryDTO;
+import com.onlinepharmacy.backend.service.CategoryTreeIndex;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategoryMapper {
+
+    private final CategoryTreeIndex categoryTreeIndex;
+
+    public CategoryMapper(CategoryTreeIndex categoryTreeIndex) {
+        this.categoryTreeIndex = categoryTreeIndex;
+    }
+
+    public CategoryDTO toDto(Category category) {
+        CategoryDTO dto = new CategoryDTO();
+        dto.setCategoryId(category.getCategoryId());
+        dto.setCategoryName(category.getCategoryName());
+        dto.setParentCategoryId(category.getParent() == null ? null : category.getParent().getCategoryId());
+        CategoryTreeIndex.CategoryCounts counts = categoryTreeIndex.counts(category.getCategoryId());
+        dto.setProductCount(counts.productCount());
+        dto.setInStockCount(counts.inStockCount());
+        return dto;
+    }
+}
@@ -0,0 +1,58 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Order;
+import com.onlinepharmacy.backend.model.OrderItem;
+import com.onlinepharmacy.backend.model.Payment;
+import com.onlinepharmacy.backend.payload.OrderDTO;
+import com.onlinepharmacy.backend.payload.OrderItemDTO;
+import com.onlinepharmacy.backend.payload.PaymentDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class OrderMapper {
+
+    private final ProductMapper productMapper;
+
+    public OrderMapper(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    public OrderDTO toDto(Order order, List<OrderItem> orderItems) {
+        OrderDTO dto = new OrderDTO();
+        dto.setOrderId(order.getOrderId());
+        dto.setEmail(order.getEmail());
+        dto.setOrderDate(order.getOrderDate());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setOrderStatus(order.getOrderStatus());
+        if (order.getPayment() != null) {
+            dto.setPayment(toDto(order.getPayment()));
+        }
+        if (order.getAddress() != null) {
+            dto.setAddressId(order.getAddress().getAddressId());
+        }
+        List<OrderItemDTO> items = new ArrayList<>(orderItems.size());
+        for (OrderItem item : orderItems) {
+            items.add(toDto(item));
+        }
+        dto.setOrderItems(items);
+        return dto;
+    }
+
+    public OrderItemDTO toDto(OrderItem item) {
+        OrderItemDTO dto = new OrderItemDTO();
+        dto.setOrderItemId(item.getOrderItemId());
+        dto.setProduct(item.getProduct() == null ? null : productMapper.toDto(item.getProduct()));
+        dto.setQuantity(item.getQuantity());
+        dto.setDiscount(item.getDiscount());
+        dto.setOrderedProductPrice(item.getOrderedProductPrice());
+        return dto;
+    }
+
+    public PaymentDTO toDto(Payment payment) {
+        return new PaymentDTO(payment.getPaymentId(), payment.getPaymentMethod(), payment.getPgPaymentId(),
+                payment.getPgStatus(), payment.getPgResponseMessage(), payment.getPgName());
+    }
+}
@@ -0,0 +1,62 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.ImageVariant;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.repositories.projection.ProductFullView;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductMapper {
+
+    public ProductDTO toDto(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setProductId(product.getProductId());
+        dto.setProductName(product.getProductName());
+        dto.setImage(product.getImage());
+        dto.setDescription(product.getDescription());
+        dto.setQuantity(product.getQuantity());
+        dto.setPrice(product.getPrice());
+        dto.setDiscount(product.getDiscount());
+        dto.setSpecialPrice(product.getSpecialPrice());
+        setVariants(dto, product.getImage(), product.getImageVariants());
+        return dto;
+    }
+
+    public ProductDTO toDto(ProductListView view) {
+        ProductDTO dto = new ProductDTO(view.productId(), view.productName(), view.image(), view.description(),
+                view.quantity(), view.price(), view.discount(), view.specialPrice());
+        setVariants(dto, view.image(), view.imageVariants());
+        return dto;
+    }
+
+    public ProductDTO toDto(ProductFullView view) {
+        ProductDTO dto = new ProductDTO(view.productId(), view.productName(), view.image(), view.description(),
+                view.quantity(), view.price(), view.discount(), view.specialPrice());
+        setVariants(dto, view.image(), view.imageVariants());
+        return dto;
+    }
+
+    public Product toEntity(ProductDTO dto) {
+        Product product = new Product();
+        product.setProductId(dto.getProductId());
+        product.setProductName(dto.getProductName());
+        product.setImage(dto.getImage());
+        product.setDescription(dto.getDescription());
+        product.setQuantity(dto.getQuantity());
+        product.setPrice(dto.getPrice() == null ? 0 : dto.getPrice());
+        product.setDiscount(dto.getDiscount() == null ? 0 : dto.getDiscount());
+        product.setSpecialPrice(dto.getSpecialPrice() == null ? 0 : dto.getSpecialPrice());
+        return product;
+    }
+
+    private void setVariants(ProductDTO dto, String image, int variants) {
+        if (image == null) {
+            return;
+        }
+        dto.setThumbnailImage(ImageVariant.THUMBNAIL.isAvailable(variants) ? ImageVariant.THUMBNAIL.fileName(image) : null);
+        dto.setCardImage(ImageVariant.CARD.isAvailable(variants) ? ImageVariant.CARD.fileName(image) : null);
+        dto.setFullImage(ImageVariant.FULL.isAvailable(variants) ? ImageVariant.FULL.fileName(image) : null);
+    }
+}
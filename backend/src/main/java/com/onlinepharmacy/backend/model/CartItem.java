@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
@@ -24,4 +25,9 @@ public class CartItem {
     private Integer quantity;
     private double discount;
     private double productPrice;
+    @ColumnDefault("0")
+    private long priceVersion;
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
\ No newline at end of file
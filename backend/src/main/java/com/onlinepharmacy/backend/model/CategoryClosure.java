@@ -0,0 +1,34 @@
+package com.onlinepharmacy.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// One row per (ancestor, descendant) pair of the category tree, including the depth-0 self row,
+// so a whole subtree is reachable with a single join on ancestor_id.
+@Entity
+@Table(name = "category_closure",
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryClosure {
+
+    @EmbeddedId
+    private Key id;
+    private int depth;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "ancestor_id")
+        private Long ancestorId;
+        @Column(name = "descendant_id")
+        private Long descendantId;
+    }
+}
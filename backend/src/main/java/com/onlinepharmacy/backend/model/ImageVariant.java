@@ -0,0 +1,38 @@
+package com.onlinepharmacy.backend.model;
+
+public enum ImageVariant {
+    THUMBNAIL("thumb", 160),
+    CARD("card", 480),
+    FULL("full", 1200);
+
+    private final String suffix;
+    private final int maxDimension;
+
+    ImageVariant(String suffix, int maxDimension) {
+        this.suffix = suffix;
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isAvailable(int variants) {
+        return (variants & mask()) != 0;
+    }
+
+    // PNG sources keep PNG so transparency survives; everything else is re-encoded as JPEG.
+    public static String formatOf(String image) {
+        return image.toLowerCase().endsWith(".png") ? "png" : "jpg";
+    }
+
+    public String fileName(String image) {
+        int dot = image.lastIndexOf('.');
+        String base = dot < 0 ? image : image.substring(0, dot);
+        return base + "-" + suffix + "." + formatOf(image);
+    }
+}
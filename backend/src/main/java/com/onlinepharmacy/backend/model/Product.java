@@ -5,8 +5,10 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +17,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_category", columnList = "category_id"))
 @ToString
 public class Product {
 
@@ -26,6 +28,8 @@ public class Product {
     @Size(min = 3, message = "Product name must contain atleast 3 characters")
     private String productName;
     private String image;
+    @ColumnDefault("0")
+    private int imageVariants;
     @NotBlank
     @Size(min = 6, message = "Product description must contain atleast 6 characters")
     private String description;
@@ -33,14 +37,23 @@ public class Product {
     private double price;
     private double discount;
     private double specialPrice;
+    @ColumnDefault("0")
+    private long priceVersion;
+    @Version
+    @ColumnDefault("0")
+    private long version;
 
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
-    @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<CartItem> products = new ArrayList<>();
 }
 
@@ -0,0 +1,33 @@
+package com.onlinepharmacy.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_images", indexes = @Index(name = "idx_stored_images_unreferenced", columnList = "ref_count, updated_at"))
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+public class StoredImage {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+    @Column(nullable = false, length = 10)
+    private String extension;
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static String fileName(String hash, String extension) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+    }
+
+    public String getFileName() {
+        return fileName(hash, extension);
+    }
+}
@@ -0,0 +1,15 @@
+package com.onlinepharmacy.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImageResult {
+    private String fileName;
+    private Long productId;
+    private String image;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.onlinepharmacy.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImageUploadResponse {
+    private Integer succeeded;
+    private Integer failed;
+    private List<BulkImageResult> results;
+}
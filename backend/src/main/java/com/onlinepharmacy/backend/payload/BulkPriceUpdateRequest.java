@@ -0,0 +1,19 @@
+package com.onlinepharmacy.backend.payload;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkPriceUpdateRequest {
+    private List<Long> productIds;
+    private Long categoryId;
+    private boolean allProducts;
+    @DecimalMin(value = "-100", inclusive = false)
+    private Double priceChangePercent;
+    @DecimalMin("0")
+    @DecimalMax("100")
+    private Double discount;
+}
@@ -0,0 +1,12 @@
+package com.onlinepharmacy.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPriceUpdateResponse {
+    private Integer productsUpdated;
+}
@@ -0,0 +1,20 @@
+package com.onlinepharmacy.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private String name;
+    private Integer size;
+    private Integer maximumSize;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+    private Double hitRate;
+    private Long bytes;
+    private Long maximumBytes;
+}
@@ -0,0 +1,13 @@
+package com.onlinepharmacy.backend.payload;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartMutationRequest {
+    @NotEmpty
+    private List<@Valid CartOperation> operations;
+}
@@ -0,0 +1,23 @@
+package com.onlinepharmacy.backend.payload;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+    @NotNull
+    private Type type;
+    @NotNull
+    private Long productId;
+    @Min(0)
+    private Integer quantity;
+
+    public enum Type {
+        ADD, SET, REMOVE
+    }
+}
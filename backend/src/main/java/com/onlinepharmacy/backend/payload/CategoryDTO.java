@@ -10,4 +10,7 @@ import lombok.NoArgsConstructor;
 public class CategoryDTO {
     private Long categoryId;
     private String categoryName;
-}
\ No newline at end of file
+    private Long parentCategoryId;
+    private long productCount;
+    private long inStockCount;
+}
@@ -16,4 +16,12 @@ public class ProductDTO {
     private Double price;
     private Double discount;
     private Double specialPrice;
+    private String thumbnailImage;
+    private String cardImage;
+    private String fullImage;
+
+    public ProductDTO(Long productId, String productName, String image, String description, Integer quantity,
+                      Double price, Double discount, Double specialPrice) {
+        this(productId, productName, image, description, quantity, price, discount, specialPrice, null, null, null);
+    }
 }
@@ -0,0 +1,23 @@
+package com.onlinepharmacy.backend.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJobResponse {
+    private String jobId;
+    private String status;
+    private String format;
+    private Long processedRows;
+    private Long importedRows;
+    private Long failedRows;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<ProductImportError> errors;
+}
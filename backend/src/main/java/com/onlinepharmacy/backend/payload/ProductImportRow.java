@@ -0,0 +1,31 @@
+package com.onlinepharmacy.backend.payload;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ProductImportRow {
+    private Long productId;
+    @NotBlank
+    @Size(min = 3)
+    private String productName;
+    private String image;
+    @NotBlank
+    @Size(min = 6)
+    private String description;
+    @NotNull
+    @PositiveOrZero
+    private Integer quantity;
+    @NotNull
+    @PositiveOrZero
+    private Double price;
+    @PositiveOrZero
+    private Double discount;
+    @PositiveOrZero
+    private Double specialPrice;
+    private Long categoryId;
+    private String categoryName;
+}
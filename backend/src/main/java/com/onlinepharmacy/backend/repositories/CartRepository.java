@@ -1,18 +1,32 @@
 package com.onlinepharmacy.backend.repositories;
 
 import com.onlinepharmacy.backend.model.Cart;
+import com.onlinepharmacy.backend.repositories.projection.CartLineView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-
-import java.util.List;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
     Cart findCartByEmail(String email);
-    @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.id = ?2")
-    Cart findCartByEmailAndCartId(String emailId, Long cartId);
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.user.email = ?1")
+    Cart findCartWithItemsByEmail(String email);
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.user.userName = ?1")
+    Cart findCartWithItemsByUserName(String userName);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.CartLineView(
+                  c.cartId, c.totalPrice, p.productId, p.productName, p.image, p.description, ci.quantity,
+                  p.price, p.discount, p.specialPrice, p.imageVariants, ci.priceVersion, p.priceVersion)
+           from Cart c
+           join c.user u
+           left join c.cartItems ci
+           left join ci.product p
+           where u.userName = :userName
+           order by ci.cartItemId
+           """)
+    List<CartLineView> findLineViewsByUserName(@Param("userName") String userName);
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.onlinepharmacy.backend.repositories;
+
+import com.onlinepharmacy.backend.model.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    @Query("select cc.id.descendantId from CategoryClosure cc where cc.id.ancestorId = :categoryId")
+    List<Long> findSubtreeIds(@Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Query(value = """
+           insert into category_closure (ancestor_id, descendant_id, depth)
+           select ancestor_id, :categoryId, depth + 1 from category_closure where descendant_id = :parentId
+           union all
+           select :categoryId, :categoryId, 0
+           """, nativeQuery = true)
+    void insertNode(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query(value = "insert into category_closure (ancestor_id, descendant_id, depth) values (:categoryId, :categoryId, 0)",
+           nativeQuery = true)
+    void insertRoot(@Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Query(value = """
+           delete from category_closure
+           where descendant_id in (select descendant_id from category_closure where ancestor_id = :categoryId)
+             and ancestor_id not in (select descendant_id from category_closure where ancestor_id = :categoryId)
+           """, nativeQuery = true)
+    void detachSubtree(@Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Query(value = """
+           insert into category_closure (ancestor_id, descendant_id, depth)
+           select up.ancestor_id, down.descendant_id, up.depth + down.depth + 1
+           from category_closure up
+           cross join category_closure down
+           where up.descendant_id = :parentId and down.ancestor_id = :categoryId
+           """, nativeQuery = true)
+    void attachSubtree(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query(value = "delete from category_closure where descendant_id = :categoryId", nativeQuery = true)
+    void deleteNode(@Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+           insert into category_closure (ancestor_id, descendant_id, depth)
+           select c.category_id, c.category_id, 0 from categories c
+           where not exists (select 1 from category_closure cc
+                             where cc.ancestor_id = c.category_id and cc.descendant_id = c.category_id)
+           """, nativeQuery = true)
+    int backfillSelfRows();
+}
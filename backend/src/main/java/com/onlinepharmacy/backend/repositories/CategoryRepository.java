@@ -1,10 +1,40 @@
 package com.onlinepharmacy.backend.repositories;
 
 import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.repositories.projection.CategoryParentView;
+import com.onlinepharmacy.backend.repositories.projection.CategoryProductCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByCategoryName(String categoryName);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.CategoryProductCount(
+                  c.categoryId, c.categoryName, count(p))
+           from Category c
+           left join c.products p
+           group by c.categoryId, c.categoryName
+           """)
+    List<CategoryProductCount> countProductsByCategory();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.CategoryProductCount(
+                  c.categoryId, c.categoryName, count(p))
+           from Category c
+           left join c.products p
+           where c.categoryId in :categoryIds
+           group by c.categoryId, c.categoryName
+           """)
+    List<CategoryProductCount> countProductsByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.CategoryParentView(c.categoryId, parent.categoryId)
+           from Category c
+           left join c.parent parent
+           """)
+    List<CategoryParentView> findParentViews();
+    boolean existsByParent_CategoryId(Long categoryId);
 }
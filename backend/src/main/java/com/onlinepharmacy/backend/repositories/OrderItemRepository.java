@@ -1,10 +1,12 @@
 package com.onlinepharmacy.backend.repositories;
 
 import com.onlinepharmacy.backend.model.OrderItem;
+import com.onlinepharmacy.backend.repositories.projection.ProductSales;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -27,4 +29,17 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
            where o.orderId = :orderId
            """)
     List<OrderItem> findAllByOrderIdWithProduct(@Param("orderId") Long orderId);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductSales(oi.product.productId, sum(oi.quantity))
+           from OrderItem oi
+           group by oi.product.productId
+           """)
+    List<ProductSales> sumUnitsSoldByProduct();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductSales(oi.product.productId, sum(oi.quantity))
+           from OrderItem oi
+           where oi.product.productId in :productIds
+           group by oi.product.productId
+           """)
+    List<ProductSales> sumUnitsSoldByProduct(@Param("productIds") Collection<Long> productIds);
 }
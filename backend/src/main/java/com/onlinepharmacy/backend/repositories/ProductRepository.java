@@ -1,20 +1,209 @@
 package com.onlinepharmacy.backend.repositories;
 
-import com.onlinepharmacy.backend.model.Category;
 import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.repositories.projection.LowStockView;
+import com.onlinepharmacy.backend.repositories.projection.ProductAdminView;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import com.onlinepharmacy.backend.repositories.projection.ProductFullView;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import com.onlinepharmacy.backend.repositories.projection.ProductNameView;
+import com.onlinepharmacy.backend.repositories.projection.ProductSearchDocument;
+import com.onlinepharmacy.backend.repositories.projection.ProductSortView;
+import com.onlinepharmacy.backend.repositories.projection.ProductVersionView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductScrollRepository {
 
-    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageable);
-    List<Product> findByCategory_CategoryId(Long categoryId);
     Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageable);
-    List<Product> findByQuantityLessThanEqual(Integer quantity);
+    boolean existsByCategory_CategoryIdAndProductName(Long categoryId, String productName);
+    @Query("select p.productId from Product p")
+    List<Long> findAllIds();
+    @Query("select p.productId from Product p where p.category.categoryId = :categoryId")
+    List<Long> findIdsByCategory(@Param("categoryId") Long categoryId);
+    @Modifying
+    @Transactional
+    @Query("""
+           update versioned Product p
+           set p.imageVariants = :imageVariants
+           where p.productId = :productId and p.image = :image
+           """)
+    int updateImageVariants(@Param("productId") Long productId, @Param("image") String image,
+                            @Param("imageVariants") int imageVariants);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update versioned Product p
+           set p.price = p.price * :priceFactor,
+               p.specialPrice = p.price * :priceFactor * (1 - p.discount * 0.01),
+               p.priceVersion = p.priceVersion + 1
+           where p.productId in :productIds
+           """)
+    int reprice(@Param("productIds") Collection<Long> productIds, @Param("priceFactor") double priceFactor);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update versioned Product p
+           set p.price = p.price * :priceFactor,
+               p.discount = :discount,
+               p.specialPrice = p.price * :priceFactor * (1 - :discount * 0.01),
+               p.priceVersion = p.priceVersion + 1
+           where p.productId in :productIds
+           """)
+    int reprice(@Param("productIds") Collection<Long> productIds, @Param("priceFactor") double priceFactor,
+                @Param("discount") double discount);
+    @Query(value = """
+           select new com.onlinepharmacy.backend.repositories.projection.ProductListView(
+                  p.productId, p.productName, p.image, p.description, p.quantity, p.price, p.discount, p.specialPrice,
+                  p.imageVariants)
+           from Product p
+           """,
+           countQuery = "select count(p) from Product p")
+    Page<ProductListView> findListViews(Pageable pageable);
+    @Query(value = """
+           select new com.onlinepharmacy.backend.repositories.projection.ProductListView(
+                  p.productId, p.productName, p.image, p.description, p.quantity, p.price, p.discount, p.specialPrice,
+                  p.imageVariants)
+           from Product p
+           join CategoryClosure cc on cc.id.descendantId = p.category.categoryId
+           where cc.id.ancestorId = :categoryId
+           """,
+           countQuery = """
+           select count(p)
+           from Product p
+           join CategoryClosure cc on cc.id.descendantId = p.category.categoryId
+           where cc.id.ancestorId = :categoryId
+           """)
+    Page<ProductListView> findListViewsInSubtree(@Param("categoryId") Long categoryId, Pageable pageable);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductListView(
+                  p.productId, p.productName, p.image, p.description, p.quantity, p.price, p.discount, p.specialPrice,
+                  p.imageVariants)
+           from Product p
+           where p.productId in :productIds
+           """)
+    List<ProductListView> findListViews(@Param("productIds") Collection<Long> productIds);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductFullView(
+                  p.productId, p.productName, p.image, p.description, p.quantity, p.price, p.discount, p.specialPrice,
+                  p.imageVariants, d.id, d.ingredients, d.usageDosage, d.storageInfo, d.sideEffects, d.expiryDate)
+           from Product p
+           left join ProductDetails d on d.product = p
+           where p.productId = :productId
+           """)
+    Optional<ProductFullView> findFullView(@Param("productId") Long productId);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductAdminView(
+                  p.productId, p.productName, p.image, p.description, p.quantity, p.price, p.discount, p.specialPrice,
+                  c.categoryId, c.categoryName)
+           from Product p
+           left join p.category c
+           """)
+    List<ProductAdminView> findAdminViews();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductAdminView(
+                  p.productId, p.productName, p.image, p.description, p.quantity, p.price, p.discount, p.specialPrice,
+                  c.categoryId, c.categoryName)
+           from Product p
+           join p.category c
+           where c.categoryId = :categoryId
+           """)
+    List<ProductAdminView> findAdminViewsByCategory(@Param("categoryId") Long categoryId);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.LowStockView(p.productId, p.productName, p.quantity)
+           from Product p
+           where p.quantity <= :threshold
+           """)
+    List<LowStockView> findLowStock(@Param("threshold") Integer threshold);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductSearchDocument(
+                  p.productId, p.productName, p.description, d.ingredients)
+           from Product p
+           left join ProductDetails d on d.product = p
+           """)
+    Stream<ProductSearchDocument> streamSearchDocuments();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductSearchDocument(
+                  p.productId, p.productName, p.description, d.ingredients)
+           from Product p
+           left join ProductDetails d on d.product = p
+           where p.productId in :productIds
+           """)
+    List<ProductSearchDocument> findSearchDocuments(@Param("productIds") Collection<Long> productIds);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductNameView(p.productId, p.productName, c.categoryId)
+           from Product p
+           left join p.category c
+           """)
+    List<ProductNameView> findAllNames();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductNameView(p.productId, p.productName, c.categoryId)
+           from Product p
+           left join p.category c
+           where p.productId in :productIds
+           """)
+    List<ProductNameView> findNames(@Param("productIds") Collection<Long> productIds);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductNameView(p.productId, p.productName, c.categoryId)
+           from Product p
+           join p.category c
+           where c.categoryId in :categoryIds and p.productName in :productNames
+           """)
+    List<ProductNameView> findNamesInCategories(@Param("categoryIds") Collection<Long> categoryIds,
+                                                @Param("productNames") Collection<String> productNames);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductFacetView(
+                  p.productId, c.categoryId, p.specialPrice, p.discount, p.quantity)
+           from Product p
+           left join p.category c
+           """)
+    List<ProductFacetView> findAllFacetViews();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductVersionView(
+                  p.productId, p.version, d.version)
+           from Product p
+           left join ProductDetails d on d.product = p
+           where p.productId = :productId
+           """)
+    Optional<ProductVersionView> findVersionView(@Param("productId") Long productId);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductFacetView(
+                  p.productId, c.categoryId, p.specialPrice, p.discount, p.quantity)
+           from Product p
+           left join p.category c
+           where p.productId in :productIds
+           """)
+    List<ProductFacetView> findFacetViews(@Param("productIds") Collection<Long> productIds);
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductSortView(
+                  p.productId, p.productName, c.categoryId, p.price, p.discount, p.specialPrice, p.quantity)
+           from Product p
+           left join p.category c
+           """)
+    List<ProductSortView> findAllSortViews();
+    @Query("""
+           select new com.onlinepharmacy.backend.repositories.projection.ProductSortView(
+                  p.productId, p.productName, c.categoryId, p.price, p.discount, p.specialPrice, p.quantity)
+           from Product p
+           left join p.category c
+           where p.productId in :productIds
+           """)
+    List<ProductSortView> findSortViews(@Param("productIds") Collection<Long> productIds);
 
 }
@@ -0,0 +1,14 @@
+package com.onlinepharmacy.backend.repositories;
+
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ProductScrollRepository {
+
+    // Keyset page of list views ordered by sortBy then productId; a null afterId starts at the first row.
+    List<ProductListView> scrollListViews(Specification<Product> spec, String sortBy, boolean ascending,
+                                          Object afterValue, Long afterId, int limit);
+}
@@ -0,0 +1,78 @@
+package com.onlinepharmacy.backend.repositories;
+
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductScrollRepositoryImpl implements ProductScrollRepository {
+
+    // Code point order of the lower-cased name, the same order CatalogSortIndex pages by offset.
+    private static final String NAME_COLLATION = "ucs_basic";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductListView> scrollListViews(Specification<Product> spec, String sortBy, boolean ascending,
+                                                 Object afterValue, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductListView> query = cb.createQuery(ProductListView.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductListView.class,
+                root.get("productId"), root.get("productName"), root.get("image"), root.get("description"),
+                root.get("quantity"), root.get("price"), root.get("discount"), root.get("specialPrice"),
+                root.get("imageVariants")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        Expression<Long> id = root.get("productId");
+        if (afterId != null) {
+            Predicate idBeyond = ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            predicates.add(sortBy.equals("productId") ? idBeyond : keyBeyond(cb, root, sortBy, ascending, afterValue, idBeyond));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        List<Order> orders = new ArrayList<>();
+        if (!sortBy.equals("productId")) {
+            Expression<?> key = sortKey(cb, root.get(sortBy), sortBy);
+            orders.add(ascending ? cb.asc(key) : cb.desc(key));
+        }
+        orders.add(ascending ? cb.asc(id) : cb.desc(id));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    // (key > value) or (key = value and productId > afterId), mirrored for descending order.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate keyBeyond(CriteriaBuilder cb, Root<Product> root, String sortBy, boolean ascending,
+                                       Object afterValue, Predicate idBeyond) {
+        Expression key = sortKey(cb, root.get(sortBy), sortBy);
+        Expression value = sortKey(cb, ((HibernateCriteriaBuilder) cb).value(afterValue), sortBy);
+        Predicate beyond = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        return cb.or(beyond, cb.and(cb.equal(key, value), idBeyond));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Expression<?> sortKey(CriteriaBuilder cb, Expression<?> expression, String sortBy) {
+        if (!sortBy.equals("productName")) {
+            return expression;
+        }
+        return ((HibernateCriteriaBuilder) cb).collate(cb.lower((Expression<String>) expression), NAME_COLLATION);
+    }
+}
@@ -0,0 +1,44 @@
+package com.onlinepharmacy.backend.repositories;
+
+import com.onlinepharmacy.backend.model.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+           insert into stored_images (hash, extension, size_bytes, ref_count, updated_at)
+           values (:hash, :extension, :sizeBytes, 1, now())
+           on conflict (hash) do update set ref_count = stored_images.ref_count + 1, updated_at = now()
+           """, nativeQuery = true)
+    void acquire(@Param("hash") String hash, @Param("extension") String extension, @Param("sizeBytes") long sizeBytes);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update stored_images set ref_count = ref_count + 1, updated_at = now() where hash = :hash",
+           nativeQuery = true)
+    int retain(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+           update stored_images set ref_count = ref_count - 1, updated_at = now()
+           where hash = :hash and ref_count > 0
+           """, nativeQuery = true)
+    int release(@Param("hash") String hash);
+
+    @Query("select s from StoredImage s where s.refCount = 0 and s.updatedAt < :before")
+    List<StoredImage> findUnreferenced(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("delete from StoredImage s where s.hash = :hash and s.refCount = 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
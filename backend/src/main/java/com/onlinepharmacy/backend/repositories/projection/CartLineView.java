@@ -0,0 +1,21 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+// One row per cart line; a cart without lines yields a single row whose product columns are null.
+public record CartLineView(Long cartId, Double totalPrice, Long productId, String productName, String image,
+                           String description, Integer quantity, Double price, Double discount,
+                           Double specialPrice, Integer imageVariants, Long linePriceVersion,
+                           Long productPriceVersion) {
+
+    public boolean hasLine() {
+        return productId != null;
+    }
+
+    public boolean isStale() {
+        return hasLine() && !linePriceVersion.equals(productPriceVersion);
+    }
+
+    public ProductListView product() {
+        return new ProductListView(productId, productName, image, description, quantity, price, discount,
+                specialPrice, imageVariants);
+    }
+}
@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record CategoryProductCount(Long categoryId, String categoryName, Long productCount) {
+}
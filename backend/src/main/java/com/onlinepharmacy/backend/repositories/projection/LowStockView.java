@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record LowStockView(Long productId, String productName, Integer quantity) {
+}
@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductFacetView(Long productId, Long categoryId, double specialPrice, double discount, Integer quantity) {
+}
@@ -0,0 +1,8 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+import java.time.LocalDate;
+
+public record ProductFullView(Long productId, String productName, String image, String description, Integer quantity,
+                              double price, double discount, double specialPrice, int imageVariants, Long detailsId, String ingredients,
+                              String usageDosage, String storageInfo, String sideEffects, LocalDate expiryDate) {
+}
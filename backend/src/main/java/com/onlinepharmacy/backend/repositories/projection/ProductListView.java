@@ -0,0 +1,6 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductListView(Long productId, String productName, String image, String description,
+                              Integer quantity, double price, double discount, double specialPrice,
+                              int imageVariants) {
+}
@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductNameView(Long productId, String productName, Long categoryId) {
+}
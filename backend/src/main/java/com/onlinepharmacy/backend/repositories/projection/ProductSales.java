@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductSales(Long productId, Long unitsSold) {
+}
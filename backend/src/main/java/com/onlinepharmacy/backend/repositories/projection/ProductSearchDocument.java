@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductSearchDocument(Long productId, String productName, String description, String ingredients) {
+}
@@ -0,0 +1,5 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductSortView(Long productId, String productName, Long categoryId, double price, double discount,
+                              double specialPrice, Integer quantity) {
+}
@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.repositories.projection;
+
+public record ProductVersionView(Long productId, long productVersion, Long detailsVersion) {
+}
@@ -0,0 +1,203 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.exceptions.APIException;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.BulkImageResult;
+import com.onlinepharmacy.backend.payload.BulkImageUploadResponse;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Reads a ZIP of images named <productId>.<ext> entry by entry straight from the request. Each entry
+// is buffered (up to the upload cap) and handed to a worker that hashes and stores it; a semaphore
+// bounds how many entries are in memory at once. Product rows are then updated in batches.
+@Service
+public class BulkImageUploadService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final FileService fileService;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor bulkImageExecutor;
+    private final TransactionTemplate tx;
+
+    @Value("${backend.image}")
+    private String path;
+
+    @Value("${app.image.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
+
+    @Value("${app.image.bulk-max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${app.image.bulk-batch-size:500}")
+    private int batchSize;
+
+    public BulkImageUploadService(FileService fileService,
+                                  ProductRepository productRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Qualifier("bulkImageExecutor") ThreadPoolTaskExecutor bulkImageExecutor,
+                                  PlatformTransactionManager transactionManager) {
+        this.fileService = fileService;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.bulkImageExecutor = bulkImageExecutor;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkImageUploadResponse upload(InputStream body) {
+        List<CompletableFuture<BulkImageResult>> pending = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(bulkImageExecutor.getMaxPoolSize() * 2);
+        try (ZipInputStream zip = new ZipInputStream(body)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (entry.isDirectory() || isHidden(name)) {
+                    continue;
+                }
+                if (pending.size() >= maxEntries) {
+                    throw new APIException("Archive contains more than " + maxEntries + " images");
+                }
+                Long productId = productIdOf(name);
+                if (productId == null) {
+                    pending.add(CompletableFuture.completedFuture(
+                            new BulkImageResult(name, null, null, "File name must be a product id, e.g. 42.jpg")));
+                    continue;
+                }
+                byte[] content = readEntry(zip);
+                if (content == null) {
+                    pending.add(CompletableFuture.completedFuture(new BulkImageResult(name, productId, null,
+                            "Image exceeds the maximum upload size of " + maxUploadBytes + " bytes")));
+                    continue;
+                }
+                inFlight.acquire();
+                pending.add(CompletableFuture.supplyAsync(() -> store(name, productId, content), bulkImageExecutor)
+                        .whenComplete((result, error) -> inFlight.release()));
+            }
+        } catch (IOException | APIException | InterruptedException e) {
+            pending.stream().map(CompletableFuture::join).forEach(result -> fileService.releaseImage(result.getImage()));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw e instanceof APIException api ? api : new APIException("Invalid ZIP archive: " + e.getMessage());
+        }
+
+        List<BulkImageResult> results = pending.stream().map(CompletableFuture::join).toList();
+        assign(results);
+        int succeeded = (int) results.stream().filter(result -> result.getError() == null).count();
+        return new BulkImageUploadResponse(succeeded, results.size() - succeeded, results);
+    }
+
+    private BulkImageResult store(String name, Long productId, byte[] content) {
+        try {
+            String image = fileService.storeImage(path, new ByteArrayInputStream(content));
+            return new BulkImageResult(name, productId, image, null);
+        } catch (IOException | RuntimeException e) {
+            return new BulkImageResult(name, productId, null, e.getMessage());
+        }
+    }
+
+    // The last file for a product wins; earlier ones are reported and their references dropped.
+    private void assign(List<BulkImageResult> results) {
+        Map<Long, BulkImageResult> latest = new LinkedHashMap<>();
+        for (BulkImageResult result : results) {
+            if (result.getError() != null) {
+                continue;
+            }
+            BulkImageResult previous = latest.put(result.getProductId(), result);
+            if (previous != null) {
+                fail(previous, "Superseded by " + result.getFileName());
+            }
+        }
+
+        List<BulkImageResult> stored = new ArrayList<>(latest.values());
+        for (int from = 0; from < stored.size(); from += batchSize) {
+            List<BulkImageResult> batch = stored.subList(from, Math.min(from + batchSize, stored.size()));
+            tx.executeWithoutResult(status -> assignBatch(batch));
+        }
+    }
+
+    private void assignBatch(List<BulkImageResult> batch) {
+        Map<Long, Product> products = productRepository.findAllById(
+                        batch.stream().map(BulkImageResult::getProductId).toList()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<Long> updated = new ArrayList<>(batch.size());
+        for (BulkImageResult result : batch) {
+            Product product = products.get(result.getProductId());
+            if (product == null) {
+                fail(result, "Product not found");
+                continue;
+            }
+            String previousImage = product.getImage();
+            product.setImage(result.getImage());
+            product.setImageVariants(0);
+            fileService.releaseImage(previousImage);
+            updated.add(product.getProductId());
+            eventPublisher.publishEvent(new ProductImageChangedEvent(product.getProductId(), result.getImage()));
+        }
+        productRepository.flush();
+        if (!updated.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.of(updated));
+        }
+    }
+
+    private void fail(BulkImageResult result, String error) {
+        fileService.releaseImage(result.getImage());
+        result.setImage(null);
+        result.setError(error);
+    }
+
+    private byte[] readEntry(ZipInputStream zip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(CHUNK_SIZE);
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long total = 0;
+        int read;
+        while ((read = zip.read(chunk)) > 0) {
+            total += read;
+            if (total > maxUploadBytes) {
+                while (zip.read(chunk) > 0) {
+                    // drain the rest of the entry so the stream is positioned at the next one
+                }
+                return null;
+            }
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isHidden(String name) {
+        String baseName = name.substring(name.lastIndexOf('/') + 1);
+        return name.startsWith("__MACOSX/") || baseName.startsWith(".");
+    }
+
+    private static Long productIdOf(String name) {
+        String baseName = name.substring(name.lastIndexOf('/') + 1);
+        int dot = baseName.lastIndexOf('.');
+        String stem = dot < 0 ? baseName : baseName.substring(0, dot);
+        if (stem.isEmpty() || stem.length() > 18 || !stem.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.valueOf(stem);
+    }
+}
@@ -1,18 +1,19 @@
 package com.onlinepharmacy.backend.service;
 
+import com.onlinepharmacy.backend.model.Cart;
 import com.onlinepharmacy.backend.payload.CartDTO;
 import com.onlinepharmacy.backend.payload.CartItemDTO;
-import jakarta.transaction.Transactional;
+import com.onlinepharmacy.backend.payload.CartOperation;
 
 import java.util.List;
 
 public interface CartService {
     CartDTO addProductToCart(Long productId, Integer quantity);
     List<CartDTO> getAllCarts();
-    CartDTO getCart(String emailId, Long cartId);
-    @Transactional
+    CartDTO getUserCart(String userName);
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
     String deleteProductFromCart(Long cartId, Long productId);
-    void updateProductInCarts(Long cartId, Long productId);
+    void reconcileCartPrices(Cart cart);
     String createOrUpdateCartWithItems(List<CartItemDTO> cartItems);
+    CartDTO applyCartOperations(List<CartOperation> operations);
 }
\ No newline at end of file
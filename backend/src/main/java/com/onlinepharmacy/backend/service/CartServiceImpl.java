@@ -2,27 +2,41 @@ package com.onlinepharmacy.backend.service;
 
 import com.onlinepharmacy.backend.exceptions.APIException;
 import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.mapper.CartMapper;
 import com.onlinepharmacy.backend.model.Cart;
 import com.onlinepharmacy.backend.model.CartItem;
 import com.onlinepharmacy.backend.model.Product;
 import com.onlinepharmacy.backend.payload.CartDTO;
 import com.onlinepharmacy.backend.payload.CartItemDTO;
-import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.payload.CartOperation;
 import com.onlinepharmacy.backend.repositories.CartItemRepository;
 import com.onlinepharmacy.backend.repositories.CartRepository;
 import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CartLineView;
 import com.onlinepharmacy.backend.util.AuthUtil;
-import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class CartServiceImpl implements CartService{
@@ -35,9 +49,28 @@ public class CartServiceImpl implements CartService{
     @Autowired
     CartItemRepository cartItemRepository;
     @Autowired
-    ModelMapper modelMapper;
+    CartMapper cartMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.cart.update-attempts:5}")
+    private int updateAttempts;
+
+    @Value("${app.cart.retry-base-delay-ms:5}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.cart.retry-max-delay-ms:200}")
+    private long retryMaxDelayMs;
+
     @Override
     public CartDTO addProductToCart(Long productId, Integer quantity) {
+        return withRetry(() -> addToCart(productId, quantity));
+    }
+    private CartDTO addToCart(Long productId, Integer quantity) {
         Cart cart  = createCart();
 
         Product product = productRepository.findById(productId)
@@ -47,13 +80,7 @@ public class CartServiceImpl implements CartService{
         if (cartItem != null) {
             throw new APIException("Product " + product.getProductName() + " already exists in the cart");
         }
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
+        checkStock(product, quantity);
 
         CartItem newCartItem = new CartItem();
         newCartItem.setProduct(product);
@@ -61,22 +88,12 @@ public class CartServiceImpl implements CartService{
         newCartItem.setQuantity(quantity);
         newCartItem.setDiscount(product.getDiscount());
         newCartItem.setProductPrice(product.getSpecialPrice());
+        newCartItem.setPriceVersion(product.getPriceVersion());
 
         cartItemRepository.save(newCartItem);
-        product.setQuantity(product.getQuantity());
-        cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice() * quantity));
-        cartRepository.save(cart);
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        List<CartItem> cartItems = cart.getCartItems();
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
-            map.setQuantity(item.getQuantity());
-            return map;
-        });
-
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
+        cart.getCartItems().add(newCartItem);
+        recalculateTotal(cart);
+        return cartMapper.toDto(cart);
     }
     @Override
     public List<CartDTO> getAllCarts() {
@@ -85,56 +102,45 @@ public class CartServiceImpl implements CartService{
             throw new APIException("No cart exists");
         }
 
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
-                productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
-                return productDTO;
-            }).collect(Collectors.toList());
-            cartDTO.setProducts(products);
-
-            return cartDTO;
-
-        }).collect(Collectors.toList());
-
-        return cartDTOs;
+        return carts.stream()
+                .map(cartMapper::toDto)
+                .collect(Collectors.toList());
     }
+    // Served from one projection query; only a cart holding lines priced at an older product price
+    // version is loaded as entities so the lines can be repriced.
     @Override
-    public CartDTO getCart(String emailId, Long cartId) {
-        Cart cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
-        if (cart == null){
-            throw new ResourceNotFoundException("Cart", "cartId", cartId);
+    public CartDTO getUserCart(String userName) {
+        List<CartLineView> rows = cartRepository.findLineViewsByUserName(userName);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Cart", "userName", userName);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        cart.getCartItems().forEach(c ->
-                c.getProduct().setQuantity(c.getQuantity()));
-        List<ProductDTO> products = cart.getCartItems().stream()
-                .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
-                .toList();
-        cartDTO.setProducts(products);
-        return cartDTO;
+        if (rows.stream().noneMatch(CartLineView::isStale)) {
+            return cartMapper.toDto(rows);
+        }
+        return withRetry(() -> {
+            Cart cart = cartRepository.findCartWithItemsByUserName(userName);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart", "userName", userName);
+            }
+            reconcileCartPrices(cart);
+            return cartMapper.toDto(cart);
+        });
     }
-    @Transactional
     @Override
     public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
-
+        return withRetry(() -> updateQuantity(productId, quantity));
+    }
+    private CartDTO updateQuantity(Long productId, Integer quantity) {
         String emailId = authUtil.loggedInEmail();
         Cart userCart = cartRepository.findCartByEmail(emailId);
         Long cartId  = userCart.getCartId();
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+        reconcileCartPrices(cart);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
+        checkStock(product, quantity);
 
         CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
         if (cartItem == null) {
@@ -145,29 +151,17 @@ public class CartServiceImpl implements CartService{
             throw new APIException("The resulting quantity cannot be negative.");
         }
         if (newQuantity == 0){
-            deleteProductFromCart(cartId, productId);
+            cart.getCartItems().removeIf(item -> item == cartItem);
+            cartItemRepository.delete(cartItem);
         } else {
             cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
+            cartItem.setQuantity(newQuantity);
             cartItem.setDiscount(product.getDiscount());
-            cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * quantity));
-            cartRepository.save(cart);
-        }
-        CartItem updatedItem = cartItemRepository.save(cartItem);
-        if(updatedItem.getQuantity() == 0){
-            cartItemRepository.deleteById(updatedItem.getCartItemId());
+            cartItem.setPriceVersion(product.getPriceVersion());
+            cartItemRepository.save(cartItem);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-        List<CartItem> cartItems = cart.getCartItems();
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO prd = modelMapper.map(item.getProduct(), ProductDTO.class);
-            prd.setQuantity(item.getQuantity());
-            return prd;
-        });
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
+        recalculateTotal(cart);
+        return cartMapper.toDto(cart);
     }
     private Cart createCart() {
         Cart userCart  = cartRepository.findCartByEmail(authUtil.loggedInEmail());
@@ -181,89 +175,200 @@ public class CartServiceImpl implements CartService{
 
         return newCart;
     }
-    @Transactional
     @Override
     public String deleteProductFromCart(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-        if (cartItem == null) {
-            throw new ResourceNotFoundException("Product", "productId", productId);
-        }
-        cart.setTotalPrice(cart.getTotalPrice() -
-                (cartItem.getProductPrice() * cartItem.getQuantity()));
-
-        cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
-        return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+        return withRetry(() -> {
+            Cart cart = cartRepository.findById(cartId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+
+            CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
+            if (cartItem == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            // Callers such as order placement may still be iterating the cart's lines, so the row is
+            // removed with a statement instead of through the collection.
+            cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
+            recalculateTotal(cart);
+            return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+        });
     }
+    // Lines priced at an older product price version pick up the current price; the total is then
+    // recomputed from the lines so it cannot drift. Callers run this inside their own transaction.
     @Override
-    public void updateProductInCarts(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+    public void reconcileCartPrices(Cart cart) {
+        List<CartItem> stale = new ArrayList<>();
+        for (CartItem item : cart.getCartItems()) {
+            Product product = item.getProduct();
+            if (item.getPriceVersion() != product.getPriceVersion()) {
+                item.setProductPrice(product.getSpecialPrice());
+                item.setDiscount(product.getDiscount());
+                item.setPriceVersion(product.getPriceVersion());
+                stale.add(item);
+            }
         }
-
-        double cartPrice = cart.getTotalPrice()
-                - (cartItem.getProductPrice() * cartItem.getQuantity());
-
-        cartItem.setProductPrice(product.getSpecialPrice());
-
-        cart.setTotalPrice(cartPrice
-                + (cartItem.getProductPrice() * cartItem.getQuantity()));
-
-        cartItem = cartItemRepository.save(cartItem);
+        if (stale.isEmpty()) {
+            return;
+        }
+        cartItemRepository.saveAll(stale);
+        recalculateTotal(cart);
     }
-    @Transactional
     @Override
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
-        // Get user's email
-        String emailId = authUtil.loggedInEmail();
-
-
-        Cart existingCart = cartRepository.findCartByEmail(emailId);
-        if (existingCart == null) {
-            existingCart = new Cart();
-            existingCart.setTotalPrice(0.00);
-            existingCart.setUser(authUtil.loggedInUser());
-            existingCart = cartRepository.save(existingCart);
-        } else {
-
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
+        return withRetry(() -> replaceCartItems(cartItems));
+    }
+    private String replaceCartItems(List<CartItemDTO> cartItems) {
+        List<CartOperation> operations = cartItems.stream()
+                .filter(item -> item.getQuantity() != null && item.getQuantity() > 0)
+                .map(item -> new CartOperation(CartOperation.Type.ADD, item.getProductId(), item.getQuantity()))
+                .toList();
+        applyOperations(operations, true);
+        return "Cart created/updated with the new items successfully";
+    }
+    @Override
+    public CartDTO applyCartOperations(List<CartOperation> operations) {
+        return withRetry(() -> applyOperations(operations, false));
+    }
+    // Operations are folded into target quantities against the cart loaded with its lines, every
+    // referenced product is fetched in one query and stock is checked in memory. Changed lines are
+    // then written as one batch each: inserts through JDBC, updates and deletes through the session.
+    private CartDTO applyOperations(List<CartOperation> operations, boolean replace) {
+        Cart cart = cartRepository.findCartWithItemsByEmail(authUtil.loggedInEmail());
+        if (cart == null) {
+            cart = createCart();
+        }
+        Map<Long, CartItem> lines = new LinkedHashMap<>();
+        cart.getCartItems().forEach(item -> lines.put(item.getProduct().getProductId(), item));
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        lines.forEach((productId, item) -> quantities.put(productId, replace ? 0 : item.getQuantity()));
+        Set<Long> touched = new HashSet<>(replace ? lines.keySet() : Set.of());
+        for (CartOperation operation : operations) {
+            Long productId = operation.getProductId();
+            Integer quantity = operation.getQuantity();
+            touched.add(productId);
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (quantity == null || quantity == 0) {
+                        throw new APIException("Quantity to add must be positive for product " + productId);
+                    }
+                    quantities.merge(productId, quantity, Integer::sum);
+                }
+                case SET -> {
+                    if (quantity == null) {
+                        throw new APIException("Quantity is required to set product " + productId);
+                    }
+                    quantities.put(productId, quantity);
+                }
+                case REMOVE -> quantities.put(productId, 0);
+            }
         }
 
-        double totalPrice = 0.00;
-
-        for (CartItemDTO cartItemDTO : cartItems) {
-            Long productId = cartItemDTO.getProductId();
-            Integer quantity = cartItemDTO.getQuantity();
-
-
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-
-            totalPrice += product.getSpecialPrice() * quantity;
-
+        Map<Long, Product> products = productRepository.findAllById(
+                        operations.stream().map(CartOperation::getProductId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<CartItem> result = new ArrayList<>(quantities.size());
+        List<CartItem> inserts = new ArrayList<>();
+        Set<Long> removed = new HashSet<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+            CartItem line = lines.get(productId);
+            if (!touched.contains(productId)) {
+                result.add(line);
+                continue;
+            }
+            if (quantity == 0) {
+                if (line != null) {
+                    removed.add(productId);
+                }
+                continue;
+            }
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            checkStock(product, quantity);
+            if (line == null) {
+                line = new CartItem();
+                line.setCart(cart);
+                line.setProduct(product);
+                inserts.add(line);
+            }
+            line.setQuantity(quantity);
+            line.setProductPrice(product.getSpecialPrice());
+            line.setDiscount(product.getDiscount());
+            line.setPriceVersion(product.getPriceVersion());
+            result.add(line);
+        }
 
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
-            cartItem.setQuantity(quantity);
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
+        cart.getCartItems().removeIf(item -> removed.contains(item.getProduct().getProductId()));
+        cartItemRepository.flush();
+        insertLines(inserts);
+        recalculateTotal(cart);
+        return cartMapper.toDto(cart, result);
+    }
+    // Cart item ids are identity columns, which Hibernate cannot batch on insert, so new lines go
+    // through one JDBC batch. They are not attached to the session; the returned cart lists them.
+    private void insertLines(List<CartItem> inserts) {
+        if (inserts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into cart_items (cart_id, product_id, quantity, discount, product_price, price_version, version)
+                values (?, ?, ?, ?, ?, ?, 0)
+                """, inserts, inserts.size(), (ps, line) -> {
+            ps.setLong(1, line.getCart().getCartId());
+            ps.setLong(2, line.getProduct().getProductId());
+            ps.setInt(3, line.getQuantity());
+            ps.setDouble(4, line.getDiscount());
+            ps.setDouble(5, line.getProductPrice());
+            ps.setLong(6, line.getPriceVersion());
+        });
+    }
+    private void checkStock(Product product, int quantity) {
+        if (product.getQuantity() == 0) {
+            throw new APIException(product.getProductName() + " is not available");
+        }
+        if (product.getQuantity() < quantity) {
+            throw new APIException("Please, make an order of the " + product.getProductName()
+                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+        }
+    }
+    // The total is derived from the lines with one SUM query after pending line changes are flushed,
+    // never adjusted in memory. Every cart mutation bumps the cart version, so two writers that
+    // summed different line states cannot both commit.
+    private void recalculateTotal(Cart cart) {
+        entityManager.lock(cart, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        cart.setTotalPrice(cartItemRepository.sumLineTotals(cart.getCartId()));
+    }
+    // Optimistic conflicts on the cart or its lines restart the whole unit of work after a randomized,
+    // exponentially growing pause, so writers that collided do not collide again in lockstep. When
+    // the caller already owns a transaction the conflict is left for it to surface.
+    private <T> T withRetry(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= updateAttempts || !backOff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+    // Full jitter: a uniform pause between zero and a cap that doubles with every attempt.
+    private boolean backOff(int attempt) {
+        long cap = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        existingCart.setTotalPrice(totalPrice);
-        cartRepository.save(existingCart);
-        return "Cart created/updated with the new items successfully";
     }
 
 }
\ No newline at end of file
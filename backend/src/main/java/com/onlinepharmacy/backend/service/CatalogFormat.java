@@ -0,0 +1,44 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.exceptions.APIException;
+import org.springframework.http.MediaType;
+
+public enum CatalogFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    CatalogFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static CatalogFormat fromName(String name) {
+        for (CatalogFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new APIException("Unsupported format: " + name);
+    }
+
+    public static CatalogFormat fromContentType(String contentType) {
+        MediaType requested = MediaType.parseMediaType(contentType);
+        for (CatalogFormat format : values()) {
+            if (format.mediaType.isCompatibleWith(requested)) {
+                return format;
+            }
+        }
+        throw new APIException("Unsupported content type: " + contentType);
+    }
+}
@@ -0,0 +1,332 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductSortView;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Columnar copy of the sortable product fields with one pre-sorted ordinal permutation per sort key,
+// so listings are served as slices of a permutation instead of an ORDER BY. Writes update the columns
+// in place and splice only the changed ordinals out of and back into each permutation. Filtered pages
+// test a bitmap of matching ordinals per permutation entry; small filters are sorted directly.
+@Service
+public class CatalogSortIndex {
+
+    private static final long NO_CATEGORY = -1;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Long, BitSet> categoryMembers = new HashMap<>();
+    private final Map<SortKey, int[]> orders = new HashMap<>();
+    private long[] ids = new long[0];
+    private String[] names = new String[0];
+    private long[] categoryIds = new long[0];
+    private double[] prices = new double[0];
+    private double[] discounts = new double[0];
+    private double[] specialPrices = new double[0];
+    private int[] quantities = new int[0];
+    private int highWater;
+    private int size;
+    private boolean built;
+
+    public CatalogSortIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // The rows are read under the write lock so a change event that arrives mid-build is applied
+    // on top of the new index instead of being dropped.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            load(productRepository.findAllSortViews());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductSortView> views = productRepository.findSortViews(event.productIds());
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                apply(event.productIds(), views);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean supports(String sortBy) {
+        return SortKey.BY_FIELD.containsKey(sortBy);
+    }
+
+    public SortedPage page(String sortBy, boolean ascending, int pageNumber, int pageSize) {
+        lock.readLock().lock();
+        try {
+            ensureBuilt();
+            int[] order = orders.get(SortKey.BY_FIELD.get(sortBy));
+            int from = (int) Math.min((long) pageNumber * pageSize, size);
+            int to = (int) Math.min((long) from + pageSize, size);
+            List<Long> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(ids[order[ascending ? i : size - 1 - i]]);
+            }
+            return new SortedPage(page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SortedPage pageInCategories(String sortBy, boolean ascending, Set<Long> categoryIds, int pageNumber, int pageSize) {
+        lock.readLock().lock();
+        try {
+            ensureBuilt();
+            BitSet matches = new BitSet();
+            for (Long categoryId : categoryIds) {
+                BitSet members = categoryMembers.get(categoryId);
+                if (members != null) matches.or(members);
+            }
+            return filteredPage(SortKey.BY_FIELD.get(sortBy), ascending, matches, pageNumber, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SortedPage pageOf(String sortBy, boolean ascending, Collection<Long> productIds, int pageNumber, int pageSize) {
+        lock.readLock().lock();
+        try {
+            ensureBuilt();
+            BitSet matches = new BitSet();
+            for (Long productId : productIds) {
+                Integer ordinal = ordinals.get(productId);
+                if (ordinal != null) matches.set(ordinal);
+            }
+            return filteredPage(SortKey.BY_FIELD.get(sortBy), ascending, matches, pageNumber, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Requests that arrive before the startup build load the index themselves. Called under the
+    // read lock, which cannot be upgraded, so it is released around the build.
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        lock.readLock().unlock();
+        try {
+            rebuildIfMissing();
+        } finally {
+            lock.readLock().lock();
+        }
+    }
+
+    private void rebuildIfMissing() {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                load(productRepository.findAllSortViews());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private SortedPage filteredPage(SortKey key, boolean ascending, BitSet matches, int pageNumber, int pageSize) {
+        int total = matches.cardinality();
+        int from = (int) Math.min((long) pageNumber * pageSize, total);
+        int to = (int) Math.min((long) from + pageSize, total);
+        List<Long> page = new ArrayList<>(to - from);
+        if (from == to) {
+            return new SortedPage(page, total);
+        }
+        // Sorting a handful of matches beats walking a permutation of the whole catalog.
+        if ((long) total * 32 < size) {
+            Integer[] matched = new Integer[total];
+            int n = 0;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                matched[n++] = ordinal;
+            }
+            Arrays.sort(matched, (a, b) -> key.compare(this, a, b));
+            for (int i = from; i < to; i++) {
+                page.add(ids[matched[ascending ? i : total - 1 - i]]);
+            }
+            return new SortedPage(page, total);
+        }
+        int[] order = orders.get(key);
+        int seen = 0;
+        for (int i = 0; i < size && seen < to; i++) {
+            int ordinal = order[ascending ? i : size - 1 - i];
+            if (!matches.get(ordinal)) continue;
+            if (seen >= from) {
+                page.add(ids[ordinal]);
+            }
+            seen++;
+        }
+        return new SortedPage(page, total);
+    }
+
+    private void load(List<ProductSortView> views) {
+        ordinals.clear();
+        freeOrdinals.clear();
+        categoryMembers.clear();
+        orders.clear();
+        highWater = 0;
+        size = 0;
+        ensureCapacity(views.size());
+        for (SortKey key : SortKey.values()) {
+            orders.put(key, new int[ids.length]);
+        }
+        apply(Set.of(), views);
+        built = true;
+    }
+
+    // Changed rows are dropped from every permutation in one compacting pass and then merged back
+    // in at their new positions; the merge runs from the end so it needs no scratch array.
+    private void apply(Set<Long> changedIds, List<ProductSortView> changedRows) {
+        BitSet stale = new BitSet();
+        for (Long productId : changedIds) {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal != null) {
+                stale.set(ordinal);
+                BitSet members = categoryMembers.get(categoryIds[ordinal]);
+                members.clear(ordinal);
+                if (members.isEmpty()) categoryMembers.remove(categoryIds[ordinal]);
+            }
+        }
+        int kept = size - stale.cardinality();
+        stale.stream().forEach(freeOrdinals::push);
+
+        ensureCapacity(kept + changedRows.size());
+        Integer[] added = new Integer[changedRows.size()];
+        for (int i = 0; i < added.length; i++) {
+            ProductSortView view = changedRows.get(i);
+            int ordinal = freeOrdinals.isEmpty() ? highWater++ : freeOrdinals.pop();
+            setRow(ordinal, view);
+            ordinals.put(view.productId(), ordinal);
+            categoryMembers.computeIfAbsent(categoryIds[ordinal], k -> new BitSet()).set(ordinal);
+            added[i] = ordinal;
+        }
+
+        for (SortKey key : SortKey.values()) {
+            int[] order = orders.get(key);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (!stale.get(order[i])) order[n++] = order[i];
+            }
+            Arrays.sort(added, (a, b) -> key.compare(this, a, b));
+            int i = kept - 1;
+            int j = added.length - 1;
+            for (int k = kept + added.length - 1; j >= 0; k--) {
+                order[k] = i >= 0 && key.compare(this, order[i], added[j]) > 0 ? order[i--] : added[j--];
+            }
+        }
+        size = kept + added.length;
+    }
+
+    private void ensureCapacity(int required) {
+        int needed = Math.max(required, highWater + Math.max(0, required - size));
+        if (needed <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(needed, ids.length + (ids.length >> 1) + 16);
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        discounts = Arrays.copyOf(discounts, capacity);
+        specialPrices = Arrays.copyOf(specialPrices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        orders.replaceAll((key, order) -> Arrays.copyOf(order, capacity));
+    }
+
+    private void setRow(int ordinal, ProductSortView view) {
+        ids[ordinal] = view.productId();
+        names[ordinal] = nameKey(view.productName());
+        categoryIds[ordinal] = view.categoryId() == null ? NO_CATEGORY : view.categoryId();
+        prices[ordinal] = view.price();
+        discounts[ordinal] = view.discount();
+        specialPrices[ordinal] = view.specialPrice();
+        quantities[ordinal] = view.quantity() == null ? 0 : view.quantity();
+    }
+
+    // Names sort case-insensitively by code point, the same order cursor paging asks PostgreSQL for
+    // with lower(product_name) under the "ucs_basic" collation.
+    private static String nameKey(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+
+    public record SortedPage(List<Long> productIds, long totalElements) {
+    }
+
+    private enum SortKey {
+        PRODUCT_ID("productId", (s, a, b) -> 0),
+        PRODUCT_NAME("productName", (s, a, b) -> compareCodePoints(s.names[a], s.names[b])),
+        PRICE("price", (s, a, b) -> Double.compare(s.prices[a], s.prices[b])),
+        DISCOUNT("discount", (s, a, b) -> Double.compare(s.discounts[a], s.discounts[b])),
+        SPECIAL_PRICE("specialPrice", (s, a, b) -> Double.compare(s.specialPrices[a], s.specialPrices[b])),
+        QUANTITY("quantity", (s, a, b) -> Integer.compare(s.quantities[a], s.quantities[b]));
+
+        static final Map<String, SortKey> BY_FIELD = new HashMap<>();
+
+        static {
+            for (SortKey key : values()) {
+                BY_FIELD.put(key.field, key);
+            }
+        }
+
+        private final String field;
+        private final OrdinalComparator comparator;
+
+        SortKey(String field, OrdinalComparator comparator) {
+            this.field = field;
+            this.comparator = comparator;
+        }
+
+        // Ties are broken by product id so ascending and descending pages are exact mirrors.
+        int compare(CatalogSortIndex index, int a, int b) {
+            int result = comparator.compare(index, a, b);
+            return result != 0 ? result : Long.compare(index.ids[a], index.ids[b]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface OrdinalComparator {
+        int compare(CatalogSortIndex index, int a, int b);
+    }
+}
@@ -0,0 +1,60 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductVersionView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Strong ETags for catalog responses. Single products are tagged with their entity versions; list
+// pages share one aggregate version that moves on every product or category change. The aggregate
+// is seeded with the start time so a restarted instance never reuses an old tag.
+@Service
+public class CatalogVersionService {
+
+    private final ProductRepository productRepository;
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    public CatalogVersionService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        catalogVersion.incrementAndGet();
+    }
+
+    public String catalogEtag() {
+        return "\"c" + epoch + "-" + catalogVersion.get() + "\"";
+    }
+
+    public String productEtag(Long productId) {
+        return "\"p" + productId + "-" + versions(productId).productVersion() + "\"";
+    }
+
+    public String detailsEtag(Long productId) {
+        return "\"d" + productId + "-" + detailsVersion(versions(productId)) + "\"";
+    }
+
+    public String productFullEtag(Long productId) {
+        ProductVersionView versions = versions(productId);
+        return "\"f" + productId + "-" + versions.productVersion() + "-" + detailsVersion(versions) + "\"";
+    }
+
+    private static String detailsVersion(ProductVersionView versions) {
+        return versions.detailsVersion() == null ? "none" : String.valueOf(versions.detailsVersion());
+    }
+
+    private ProductVersionView versions(Long productId) {
+        return productRepository.findVersionView(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+    }
+}
@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.service;
+
+public record CategoryChangedEvent(Long categoryId) {
+}
@@ -2,22 +2,27 @@ package com.onlinepharmacy.backend.service;
 
 import com.onlinepharmacy.backend.exceptions.APIException;
 import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.mapper.CategoryMapper;
 import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.model.Product;
 import com.onlinepharmacy.backend.payload.CategoryDTO;
 import com.onlinepharmacy.backend.payload.CategoryResponse;
+import com.onlinepharmacy.backend.repositories.CategoryClosureRepository;
 import com.onlinepharmacy.backend.repositories.CategoryRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -27,7 +32,16 @@ public class CategoryServiceImpl implements CategoryService{
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
@@ -43,7 +57,7 @@ public class CategoryServiceImpl implements CategoryService{
             throw new APIException("No category created till now.");
 
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(categoryMapper::toDto)
                 .toList();
 
         CategoryResponse categoryResponse = new CategoryResponse();
@@ -57,41 +71,83 @@ public class CategoryServiceImpl implements CategoryService{
     }
 
     @Override
+    @Transactional
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        Category category = modelMapper.map(categoryDTO, Category.class);
-
         Optional<Category> categoryFromDb =
-                categoryRepository.findByCategoryName(category.getCategoryName());
+                categoryRepository.findByCategoryName(categoryDTO.getCategoryName());
 
         if (categoryFromDb.isPresent()) {
-            throw new APIException("Category with the name " + category.getCategoryName() + " already exists !!!");
+            throw new APIException("Category with the name " + categoryDTO.getCategoryName() + " already exists !!!");
         }
 
+        Category category = new Category();
+        category.setCategoryName(categoryDTO.getCategoryName());
+        category.setParent(findParent(categoryDTO.getParentCategoryId()));
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        if (category.getParent() == null) {
+            categoryClosureRepository.insertRoot(savedCategory.getCategoryId());
+        } else {
+            categoryClosureRepository.insertNode(savedCategory.getCategoryId(), category.getParent().getCategoryId());
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId()));
+        return categoryMapper.toDto(savedCategory);
     }
 
 
     @Override
+    @Transactional
     public CategoryDTO deleteCategory(Long categoryId) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
+        if (categoryRepository.existsByParent_CategoryId(categoryId)) {
+            throw new APIException("Category " + category.getCategoryName() + " still has subcategories");
+        }
+
+        List<Long> productIds = category.getProducts().stream()
+                .map(Product::getProductId)
+                .toList();
+        List<String> images = category.getProducts().stream()
+                .map(Product::getImage)
+                .toList();
+        CategoryDTO deletedCategory = categoryMapper.toDto(category);
+        categoryClosureRepository.deleteNode(categoryId);
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        images.forEach(fileService::releaseImage);
+        ProductChangedEvent.inChunks(productIds).forEach(eventPublisher::publishEvent);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+        return deletedCategory;
     }
 
     @Override
+    @Transactional
     public CategoryDTO updateCategory(CategoryDTO categoryDTO, Long categoryId) {
         Category savedCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
-        category.setCategoryId(categoryId);
-        savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        savedCategory.setCategoryName(categoryDTO.getCategoryName());
+        Long parentId = categoryDTO.getParentCategoryId();
+        Long currentParentId = savedCategory.getParent() == null ? null : savedCategory.getParent().getCategoryId();
+        if (!Objects.equals(parentId, currentParentId)) {
+            if (parentId != null && categoryClosureRepository.findSubtreeIds(categoryId).contains(parentId)) {
+                throw new APIException("Category cannot be moved under itself or one of its subcategories");
+            }
+            savedCategory.setParent(findParent(parentId));
+            categoryClosureRepository.detachSubtree(categoryId);
+            if (parentId != null) {
+                categoryClosureRepository.attachSubtree(categoryId, parentId);
+            }
+        }
+        savedCategory = categoryRepository.save(savedCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+        return categoryMapper.toDto(savedCategory);
     }
-}
-
-
 
+    private Category findParent(Long parentId) {
+        if (parentId == null) {
+            return null;
+        }
+        return categoryRepository.findById(parentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",parentId));
+    }
+}
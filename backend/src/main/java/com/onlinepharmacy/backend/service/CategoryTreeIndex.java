@@ -0,0 +1,185 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.CategoryClosureRepository;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CategoryParentView;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Product counts per category, rolled up over the category tree. Each product's contribution is
+// remembered so a product change only adjusts the categories on its old and new ancestor paths.
+@Service
+public class CategoryTreeIndex {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final ProductRepository productRepository;
+
+    private final Map<Long, Long> parents = new HashMap<>();
+    private final Map<Long, Placement> placements = new HashMap<>();
+    private final Map<Long, Set<Long>> subtrees = new HashMap<>();
+    private final Map<Long, long[]> directCounts = new HashMap<>();
+    private final Map<Long, long[]> subtreeCounts = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CategoryTreeIndex(CategoryRepository categoryRepository,
+                             CategoryClosureRepository categoryClosureRepository,
+                             ProductRepository productRepository) {
+        this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        categoryClosureRepository.backfillSelfRows();
+        List<CategoryParentView> links = categoryRepository.findParentViews();
+        List<ProductFacetView> views = productRepository.findAllFacetViews();
+        lock.writeLock().lock();
+        try {
+            loadParents(links);
+            placements.clear();
+            directCounts.clear();
+            views.forEach(view -> {
+                Placement placement = Placement.of(view);
+                placements.put(view.productId(), placement);
+                adjust(directCounts, placement, 1);
+            });
+            rollUp();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        List<CategoryParentView> links = categoryRepository.findParentViews();
+        lock.writeLock().lock();
+        try {
+            loadParents(links);
+            directCounts.keySet().retainAll(parents.keySet());
+            rollUp();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductFacetView> views = productRepository.findFacetViews(event.productIds());
+        lock.writeLock().lock();
+        try {
+            event.productIds().forEach(productId -> {
+                Placement old = placements.remove(productId);
+                if (old != null) {
+                    adjust(directCounts, old, -1);
+                    adjustPath(old, -1);
+                }
+            });
+            views.forEach(view -> {
+                Placement placement = Placement.of(view);
+                placements.put(view.productId(), placement);
+                adjust(directCounts, placement, 1);
+                adjustPath(placement, 1);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public CategoryCounts counts(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            long[] counts = subtreeCounts.get(categoryId);
+            return counts == null ? new CategoryCounts(0, 0) : new CategoryCounts(counts[0], counts[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<Long> subtree(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            return subtrees.getOrDefault(categoryId, Set.of());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The category followed by its ancestors up to the root.
+    public List<Long> path(Long categoryId) {
+        lock.readLock().lock();
+        try {
+            List<Long> path = new ArrayList<>();
+            for (Long current = categoryId; current != null && parents.containsKey(current); current = parents.get(current)) {
+                path.add(current);
+            }
+            return path;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Descendant sets are derived here, when the tree changes, so subtree lookups are a map read.
+    private void loadParents(List<CategoryParentView> links) {
+        parents.clear();
+        links.forEach(link -> parents.put(link.categoryId(), link.parentId()));
+        Map<Long, Set<Long>> descendants = new HashMap<>();
+        for (Long categoryId : parents.keySet()) {
+            for (Long current = categoryId; current != null && parents.containsKey(current); current = parents.get(current)) {
+                descendants.computeIfAbsent(current, k -> new HashSet<>()).add(categoryId);
+            }
+        }
+        subtrees.clear();
+        descendants.forEach((categoryId, subtree) -> subtrees.put(categoryId, Set.copyOf(subtree)));
+    }
+
+    private void rollUp() {
+        subtreeCounts.clear();
+        directCounts.forEach((categoryId, counts) -> {
+            for (Long current = categoryId; current != null && parents.containsKey(current); current = parents.get(current)) {
+                long[] total = subtreeCounts.computeIfAbsent(current, k -> new long[2]);
+                total[0] += counts[0];
+                total[1] += counts[1];
+            }
+        });
+    }
+
+    private void adjustPath(Placement placement, int delta) {
+        for (Long current = placement.categoryId(); current != null && parents.containsKey(current); current = parents.get(current)) {
+            adjust(subtreeCounts, new Placement(current, placement.inStock()), delta);
+        }
+    }
+
+    private static void adjust(Map<Long, long[]> target, Placement placement, int delta) {
+        if (placement.categoryId() == null) {
+            return;
+        }
+        long[] counts = target.computeIfAbsent(placement.categoryId(), k -> new long[2]);
+        counts[0] += delta;
+        if (placement.inStock()) {
+            counts[1] += delta;
+        }
+    }
+
+    private record Placement(Long categoryId, boolean inStock) {
+        static Placement of(ProductFacetView view) {
+            return new Placement(view.categoryId(), view.quantity() != null && view.quantity() > 0);
+        }
+    }
+
+    public record CategoryCounts(long productCount, long inStockCount) {
+    }
+}
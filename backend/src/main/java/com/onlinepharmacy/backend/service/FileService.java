@@ -3,7 +3,14 @@ package com.onlinepharmacy.backend.service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 public interface FileService {
     String uploadImage(String path, MultipartFile file) throws IOException;
+
+    String storeImage(String path, InputStream body) throws IOException;
+
+    void retainImage(String fileName);
+
+    void releaseImage(String fileName);
 }
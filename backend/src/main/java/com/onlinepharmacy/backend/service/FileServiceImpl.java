@@ -1,29 +1,203 @@
 package com.onlinepharmacy.backend.service;
 
+import com.onlinepharmacy.backend.exceptions.APIException;
+import com.onlinepharmacy.backend.model.StoredImage;
+import com.onlinepharmacy.backend.repositories.StoredImageRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+// Images are stored once per distinct content under <path>/<h0h1>/<h2h3>/<sha256>.<ext>. The reference
+// is taken and committed before the file is checked so the orphan cleanup job can never delete a file
+// that is about to be reused; if the caller's transaction then rolls back, the reference is dropped again.
 @Service
 public class FileServiceImpl implements FileService {
 
+    private static final Pattern STORED_NAME = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})\\.[a-z0-9]+");
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAGIC_LENGTH = 12;
+
+    private final StoredImageRepository storedImageRepository;
+    private final TransactionTemplate ownTransaction;
+
+    @Value("${app.image.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
+
+    public FileServiceImpl(StoredImageRepository storedImageRepository, PlatformTransactionManager transactionManager) {
+        this.storedImageRepository = storedImageRepository;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
-        String originalFileName = file.getOriginalFilename();
-        String randomId = UUID.randomUUID().toString();
-        String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf('.')));
-        String filePath = path + File.separator + fileName;
+        if (file.getSize() > maxUploadBytes) {
+            throw new APIException("Image exceeds the maximum upload size of " + maxUploadBytes + " bytes");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return storeImage(path, in);
+        }
+    }
 
-        File folder = new File(path);
-        if (!folder.exists())
-            folder.mkdir();
+    // Streams the body in fixed-size chunks through a FileChannel into a temp file in a staging
+    // directory beside the served one, so memory stays at one chunk per upload, the size cap is
+    // enforced while bytes arrive, partial uploads are never reachable by URL, and the file type
+    // comes from its magic bytes rather than the client's file name.
+    @Override
+    public String storeImage(String path, InputStream body) throws IOException {
+        Path dir = Paths.get(path).toAbsolutePath().normalize();
+        Path staging = dir.resolveSibling(dir.getFileName() + "-staging");
+        Files.createDirectories(dir);
+        Files.createDirectories(staging);
+        MessageDigest digest = sha256();
+        Path tmp = Files.createTempFile(staging, ".upload-", ".tmp");
+        try {
+            String extension;
+            long size = 0;
+            try (ReadableByteChannel source = Channels.newChannel(body);
+                 FileChannel target = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+                int read = 0;
+                while (buffer.position() < MAGIC_LENGTH && read >= 0) {
+                    read = source.read(buffer);
+                }
+                extension = sniffExtension(buffer.array(), buffer.position());
+                if (extension == null) {
+                    throw new APIException("Unsupported image type, expected JPEG, PNG, GIF or WebP");
+                }
+                do {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxUploadBytes) {
+                        throw new APIException("Image exceeds the maximum upload size of " + maxUploadBytes + " bytes");
+                    }
+                    digest.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                } while (source.read(buffer) >= 0);
+                target.force(false);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            extension = storedImageRepository.findById(hash)
+                    .map(StoredImage::getExtension)
+                    .orElse(extension);
+            String storedExtension = extension;
+            long storedSize = size;
+            ownTransaction.executeWithoutResult(status -> storedImageRepository.acquire(hash, storedExtension, storedSize));
+            boolean releaseOnRollback = releaseOnRollback(hash);
+
+            String fileName = StoredImage.fileName(hash, extension);
+            Path target = dir.resolve(fileName);
+            try {
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!releaseOnRollback) {
+                    release(hash);
+                }
+                throw e;
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // For image names assigned directly (admin edits, imports) rather than through an upload.
+    @Override
+    public void retainImage(String fileName) {
+        String hash = hashOf(fileName);
+        if (hash != null) {
+            storedImageRepository.retain(hash);
+        }
+    }
+
+    @Override
+    public void releaseImage(String fileName) {
+        String hash = hashOf(fileName);
+        if (hash != null) {
+            storedImageRepository.release(hash);
+        }
+    }
+
+    // Runs after the caller's transaction has ended, so the release needs a transaction of its own.
+    private boolean releaseOnRollback(String hash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(hash);
+                }
+            }
+        });
+        return true;
+    }
+
+    private void release(String hash) {
+        ownTransaction.executeWithoutResult(status -> storedImageRepository.release(hash));
+    }
+
+    private static String hashOf(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        Matcher matcher = STORED_NAME.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private static String sniffExtension(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (length >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return "png";
+        }
+        if (length >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8'
+                && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return "gif";
+        }
+        if (length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
 
-        Files.copy(file.getInputStream(), Paths.get(filePath));
-        return fileName;
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
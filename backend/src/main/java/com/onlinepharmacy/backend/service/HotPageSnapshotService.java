@@ -0,0 +1,246 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.config.AppConstants;
+import com.onlinepharmacy.backend.exceptions.APIException;
+import com.onlinepharmacy.backend.payload.ProductResponse;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CategoryParentView;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Keeps the storefront's busiest listing pages (the first pages of /api/public/products and the first
+// page of every category, with default paging) as ready-made JSON and gzip bytes. A snapshot is only
+// served while the catalog ETag it was built under is still current; writes schedule a debounced
+// background rebuild of the pages they can affect.
+@Service
+public class HotPageSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotPageSnapshotService.class);
+
+    private static final String ALL_PREFIX = "all:";
+    private static final String CATEGORY_PREFIX = "category:";
+
+    private final ProductService productService;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryTreeIndex categoryTreeIndex;
+    private final CatalogVersionService catalogVersionService;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+
+    private final Map<String, PageSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    // Work queued for the next rebuild: categories whose first page may have changed, or a full
+    // rebuild when the category tree itself changed. Each product's category is remembered so a
+    // product that moves refreshes the category it left as well as the one it joined.
+    private final Object pendingLock = new Object();
+    private final Map<Long, Long> productCategories = new HashMap<>();
+    private final Set<Long> dirtyCategories = new HashSet<>();
+    private boolean fullRebuildPending = true;
+
+    @Value("${app.snapshot.hot-pages:3}")
+    private int hotPages;
+
+    @Value("${app.snapshot.rebuild-delay-ms:500}")
+    private long rebuildDelayMs;
+
+    public HotPageSnapshotService(ProductService productService,
+                                  CategoryRepository categoryRepository,
+                                  ProductRepository productRepository,
+                                  CategoryTreeIndex categoryTreeIndex,
+                                  CatalogVersionService catalogVersionService,
+                                  ObjectMapper objectMapper,
+                                  TaskScheduler taskScheduler) {
+        this.productService = productService;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryTreeIndex = categoryTreeIndex;
+        this.catalogVersionService = catalogVersionService;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        scheduleRebuild();
+    }
+
+    // Runs ahead of CatalogVersionService so a change is queued before the ETag moves; a rebuild
+    // that reads the ETag first therefore never stamps a page it has not rebuilt with it.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductFacetView> views = productRepository.findFacetViews(event.productIds());
+        synchronized (pendingLock) {
+            event.productIds().forEach(productId -> {
+                Long previous = productCategories.remove(productId);
+                if (previous != null) {
+                    dirtyCategories.add(previous);
+                }
+            });
+            views.forEach(view -> {
+                if (view.categoryId() != null) {
+                    productCategories.put(view.productId(), view.categoryId());
+                    dirtyCategories.add(view.categoryId());
+                }
+            });
+        }
+        scheduleRebuild();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        synchronized (pendingLock) {
+            fullRebuildPending = true;
+        }
+        scheduleRebuild();
+    }
+
+    public PageSnapshot allProductsPage(int pageNumber) {
+        return current(ALL_PREFIX + pageNumber);
+    }
+
+    public PageSnapshot categoryFirstPage(Long categoryId) {
+        return current(CATEGORY_PREFIX + categoryId);
+    }
+
+    public boolean isHotPage(int pageNumber) {
+        return pageNumber >= 0 && pageNumber < hotPages;
+    }
+
+    private PageSnapshot current(String key) {
+        PageSnapshot snapshot = snapshots.get(key);
+        return snapshot != null && snapshot.etag().equals(catalogVersionService.catalogEtag()) ? snapshot : null;
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::rebuild, Instant.now().plusMillis(rebuildDelayMs));
+        }
+    }
+
+    // The all-products pages are always rebuilt since any insert or delete moves their totals. Of the
+    // category pages only those on the ancestor path of a changed product's category are rebuilt;
+    // the rest are still accurate and are re-stamped with the new catalog ETag.
+    private void rebuild() {
+        rebuildPending.set(false);
+        String etag = catalogVersionService.catalogEtag();
+        boolean full;
+        Set<Long> dirty;
+        synchronized (pendingLock) {
+            full = fullRebuildPending;
+            dirty = new HashSet<>(dirtyCategories);
+            fullRebuildPending = false;
+            dirtyCategories.clear();
+        }
+        Map<String, PageSnapshot> fresh = new HashMap<>();
+        Set<String> rebuilt = new HashSet<>();
+        try {
+            for (int page = 0; page < hotPages; page++) {
+                int pageNumber = page;
+                rebuilt.add(ALL_PREFIX + page);
+                build(fresh, ALL_PREFIX + page, etag, () -> productService.getAllProducts(pageNumber,
+                        Integer.parseInt(AppConstants.PAGE_SIZE), AppConstants.SORT_PRODUCTS_BY, AppConstants.SORT_DIR));
+            }
+            for (Long categoryId : full ? loadAllCategories() : affectedCategories(dirty)) {
+                rebuilt.add(CATEGORY_PREFIX + categoryId);
+                build(fresh, CATEGORY_PREFIX + categoryId, etag, () -> productService.searchByCategory(categoryId, 0,
+                        Integer.parseInt(AppConstants.PAGE_SIZE), AppConstants.SORT_PRODUCTS_BY, AppConstants.SORT_DIR));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Hot page snapshot rebuild failed", e);
+            requeue(full, dirty);
+            return;
+        }
+        if (!etag.equals(catalogVersionService.catalogEtag())) {
+            requeue(full, dirty);
+            scheduleRebuild();
+            return;
+        }
+        if (full) {
+            snapshots.keySet().retainAll(fresh.keySet());
+        } else {
+            snapshots.keySet().removeIf(key -> rebuilt.contains(key) && !fresh.containsKey(key));
+            snapshots.replaceAll((key, snapshot) -> new PageSnapshot(etag, snapshot.json(), snapshot.gzip()));
+        }
+        snapshots.putAll(fresh);
+        logger.debug("Rebuilt {} hot page snapshots for {}", fresh.size(), etag);
+    }
+
+    private List<Long> loadAllCategories() {
+        List<ProductFacetView> views = productRepository.findAllFacetViews();
+        synchronized (pendingLock) {
+            productCategories.clear();
+            views.forEach(view -> {
+                if (view.categoryId() != null) {
+                    productCategories.put(view.productId(), view.categoryId());
+                }
+            });
+        }
+        return categoryRepository.findParentViews().stream().map(CategoryParentView::categoryId).toList();
+    }
+
+    private Set<Long> affectedCategories(Set<Long> dirty) {
+        Set<Long> affected = new HashSet<>();
+        dirty.forEach(categoryId -> affected.addAll(categoryTreeIndex.path(categoryId)));
+        return affected;
+    }
+
+    private void requeue(boolean full, Set<Long> dirty) {
+        synchronized (pendingLock) {
+            fullRebuildPending |= full;
+            dirtyCategories.addAll(dirty);
+        }
+    }
+
+    private void build(Map<String, PageSnapshot> target, String key, String etag, Supplier<ProductResponse> loader) {
+        ProductResponse response;
+        try {
+            response = loader.get();
+        } catch (APIException e) {
+            return;
+        }
+        byte[] json = objectMapper.writeValueAsBytes(response);
+        target.put(key, new PageSnapshot(etag, json, gzip(json)));
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public record PageSnapshot(String etag, byte[] json, byte[] gzip) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.payload.CacheStatsResponse;
+import com.onlinepharmacy.backend.util.DirectBufferCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Pattern;
+
+@Service
+public class ImageServingService {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(-[a-z]+)?\\.[a-z0-9]+");
+
+    private final Path root;
+    private final DirectBufferCache<ImageFile> cache;
+
+    public ImageServingService(@Value("${backend.image:images/}") String imageDir,
+                               @Value("${app.image.cache.max-bytes:67108864}") long maxBytes,
+                               @Value("${app.image.cache.max-entry-bytes:524288}") int maxEntryBytes) {
+        this.root = Paths.get(imageDir).toAbsolutePath().normalize();
+        this.cache = new DirectBufferCache<>("imageBytes", maxBytes, maxEntryBytes);
+    }
+
+    public ImageFile resolve(String relativePath) throws IOException {
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            return null;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new ImageFile(file, attributes.size(), attributes.lastModifiedTime().toMillis(), mediaType,
+                CONTENT_ADDRESSED.matcher(relativePath).matches());
+    }
+
+    // Small, hot files are answered from off-heap memory; returns null for files too large to cache.
+    public ByteBuffer content(ImageFile image) throws IOException {
+        if (!cache.accepts(image.size())) {
+            return null;
+        }
+        ByteBuffer cached = cache.get(image);
+        if (cached != null) {
+            return cached;
+        }
+        ByteBuffer buffer = DirectBufferCache.allocate((int) image.size());
+        try (FileChannel channel = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        return cache.put(image, buffer);
+    }
+
+    public CacheStatsResponse getStats() {
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long requests = hits + misses;
+        CacheStatsResponse stats = new CacheStatsResponse();
+        stats.setName(cache.getName());
+        stats.setSize(cache.size());
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setEvictions(cache.getEvictions());
+        stats.setHitRate(requests == 0 ? 0.0 : (double) hits / requests);
+        stats.setBytes(cache.getBytes());
+        stats.setMaximumBytes(cache.getMaximumBytes());
+        return stats;
+    }
+
+    // Size and modification time are part of the key, so a replaced file is never served from stale memory.
+    public record ImageFile(Path path, long size, long lastModified, MediaType mediaType, boolean immutable) {
+    }
+}
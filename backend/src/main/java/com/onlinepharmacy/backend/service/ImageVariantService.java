@@ -0,0 +1,202 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.model.ImageVariant;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+// Decodes an uploaded product image once and writes thumbnail, card and full-size variants next to it.
+// Re-encoding from the decoded raster drops EXIF and other metadata. Runs on a bounded executor; when
+// the queue is full the product simply keeps serving the original until the next upload.
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskExecutor imageExecutor;
+
+    @Value("${backend.image}")
+    private String path;
+
+    @Value("${app.image.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    public ImageVariantService(ProductRepository productRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Qualifier("imageProcessingExecutor") TaskExecutor imageExecutor) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.imageExecutor = imageExecutor;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductImageChanged(ProductImageChangedEvent event) {
+        Long productId = event.productId();
+        String image = event.image();
+        try {
+            imageExecutor.execute(() -> process(productId, image));
+        } catch (TaskRejectedException e) {
+            logger.warn("Image variant queue full, product {} keeps its original image {}", productId, image);
+        }
+    }
+
+    private void process(Long productId, String image) {
+        Path dir = Paths.get(path);
+        int variants = 0;
+        try {
+            variants = variantsExist(dir, image) ? allVariants() : generate(dir, image);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to generate image variants for product {}", productId, e);
+        }
+        if (variants != 0 && productRepository.updateImageVariants(productId, image, variants) > 0) {
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        }
+    }
+
+    // Content-addressed images are shared between products, so a re-used upload already has its variants.
+    private static boolean variantsExist(Path dir, String image) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (!Files.exists(dir.resolve(variant.fileName(image)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int allVariants() {
+        int variants = 0;
+        for (ImageVariant variant : ImageVariant.values()) {
+            variants |= variant.mask();
+        }
+        return variants;
+    }
+
+    private int generate(Path dir, String image) throws IOException {
+        int variants = 0;
+        BufferedImage source = read(dir.resolve(image));
+        if (source == null) {
+            return 0;
+        }
+        String format = ImageVariant.formatOf(image);
+        for (ImageVariant variant : ImageVariant.values()) {
+            BufferedImage scaled = scale(source, variant.getMaxDimension(), format.equals("png"));
+            write(scaled, format, dir.resolve(variant.fileName(image)));
+            variants |= variant.mask();
+        }
+        return variants;
+    }
+
+    // A small file can declare an enormous raster, so the dimensions are read from the header and
+    // checked before any pixels are decoded.
+    private BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                logger.warn("Unsupported image format: {}", file.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.warn("Image {} has {} pixels, more than the limit of {}", file.getFileName(), pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the final bilinear step so large reductions stay sharp without the cost
+    // of a full bicubic pass over the original.
+    private static BufferedImage scale(BufferedImage source, int maxDimension, boolean keepAlpha) {
+        int type = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (width < targetWidth * 2 || height < targetHeight * 2) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!keepAlpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, height);
+                }
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".variant-", "." + format);
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (format.equals("jpg")) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(jpegQuality);
+                    if (param.canWriteProgressive()) {
+                        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                    }
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.onlinepharmacy.backend.service;
 
-import com.onlinepharmacy.backend.model.Product;
 import com.onlinepharmacy.backend.model.StockAlertLog;
 import com.onlinepharmacy.backend.repositories.ProductRepository;
 import com.onlinepharmacy.backend.repositories.StockAlertLogRepository;
+import com.onlinepharmacy.backend.repositories.projection.LowStockView;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -41,13 +41,13 @@ public class LowStockAlertJob {
         List<String> recipients = parseRecipients(adminEmails);
         if (recipients.isEmpty()) return;
 
-        List<Product> low = productRepo.findByQuantityLessThanEqual(threshold);
+        List<LowStockView> low = productRepo.findLowStock(threshold);
         if (low.isEmpty()) return;
 
-        for (Product p : low) {
-            Integer qty = (p.getQuantity() == null) ? 0 : p.getQuantity();
+        for (LowStockView p : low) {
+            Integer qty = (p.quantity() == null) ? 0 : p.quantity();
 
-            StockAlertLog log = logRepo.findByProductId(p.getProductId()).orElse(null);
+            StockAlertLog log = logRepo.findByProductId(p.productId()).orElse(null);
 
             boolean shouldSend = (log == null)
                     || log.getLastAlertAt() == null
@@ -56,10 +56,10 @@ public class LowStockAlertJob {
 
             if (!shouldSend) continue;
 
-            String subject = "LOW STOCK ALERT: " + p.getProductName();
+            String subject = "LOW STOCK ALERT: " + p.productName();
             String body =
                     "Low stock detected.\n\n" +
-                            "Product: " + p.getProductName() + " (ID: " + p.getProductId() + ")\n" +
+                            "Product: " + p.productName() + " (ID: " + p.productId() + ")\n" +
                             "Quantity left: " + qty + "\n" +
                             "Threshold: " + threshold + "\n\n" +
                             "Please restock soon.";
@@ -68,7 +68,7 @@ public class LowStockAlertJob {
             emailService.sendEmail(recipients, subject, body);
 
             if (log == null) log = new StockAlertLog();
-            log.setProductId(p.getProductId());
+            log.setProductId(p.productId());
             log.setLastAlertAt(LocalDateTime.now());
             log.setLastQuantity(qty);
             logRepo.save(log);
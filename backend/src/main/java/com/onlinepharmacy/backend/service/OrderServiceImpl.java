@@ -2,14 +2,14 @@ package com.onlinepharmacy.backend.service;
 
 import com.onlinepharmacy.backend.exceptions.APIException;
 import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.mapper.OrderMapper;
 import com.onlinepharmacy.backend.model.*;
 import com.onlinepharmacy.backend.payload.OrderDTO;
-import com.onlinepharmacy.backend.payload.OrderItemDTO;
 import com.onlinepharmacy.backend.payload.OrderResponseDTO;
 import com.onlinepharmacy.backend.repositories.*;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
@@ -26,16 +26,18 @@ public class OrderServiceImpl implements OrderService {
     @Autowired private OrderRepository orderRepository;
     @Autowired private PaymentRepository paymentRepository;
     @Autowired private CartService cartService;
-    @Autowired private ModelMapper modelMapper;
+    @Autowired private OrderMapper orderMapper;
     @Autowired private ProductRepository productRepository;
+    @Autowired private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName,
                                String pgPaymentId, String pgStatus, String pgResponseMessage) {
 
-        Cart cart = cartRepository.findCartByEmail(emailId);
+        Cart cart = cartRepository.findCartWithItemsByEmail(emailId);
         if (cart == null) throw new ResourceNotFoundException("Cart", "email", emailId);
+        cartService.reconcileCartPrices(cart);
 
         List<CartItem> cartItems = cart.getCartItems();
         if (cartItems == null || cartItems.isEmpty()) throw new APIException("Cart is empty");
@@ -66,7 +68,7 @@ public class OrderServiceImpl implements OrderService {
         }
         orderItems = orderItemRepository.saveAll(orderItems);
 
-
+        List<Long> orderedProductIds = new ArrayList<>();
         for (CartItem item : cartItems) {
             int qty = item.getQuantity();
             Product product = item.getProduct();
@@ -74,9 +76,11 @@ public class OrderServiceImpl implements OrderService {
             int current = product.getQuantity() == null ? 0 : product.getQuantity();
             product.setQuantity(current - qty);
             productRepository.save(product);
+            orderedProductIds.add(product.getProductId());
 
             cartService.deleteProductFromCart(cart.getCartId(), product.getProductId());
         }
+        eventPublisher.publishEvent(ProductChangedEvent.of(orderedProductIds));
 
         return buildOrderDTO(savedOrder, orderItems);
     }
@@ -143,37 +147,13 @@ public class OrderServiceImpl implements OrderService {
         List<OrderDTO> dtos = new ArrayList<>();
 
         for (Order o : orders) {
-            OrderDTO dto = modelMapper.map(o, OrderDTO.class);
-
-            List<OrderItem> items = itemsByOrderId.getOrDefault(o.getOrderId(), List.of());
-
-
-            List<OrderItemDTO> itemDTOs = items.stream()
-                    .map(it -> modelMapper.map(it, OrderItemDTO.class))
-                    .collect(Collectors.toList());
-
-            dto.setOrderItems(itemDTOs);
-
-            if (o.getAddress() != null) dto.setAddressId(o.getAddress().getAddressId());
-
-            dtos.add(dto);
+            dtos.add(orderMapper.toDto(o, itemsByOrderId.getOrDefault(o.getOrderId(), List.of())));
         }
 
         return dtos;
     }
 
     private OrderDTO buildOrderDTO(Order order, List<OrderItem> orderItems) {
-        OrderDTO dto = modelMapper.map(order, OrderDTO.class);
-
-        List<OrderItemDTO> items = (orderItems == null ? List.of() : orderItems)
-                .stream()
-                .map(it -> modelMapper.map(it, OrderItemDTO.class))
-                .collect(Collectors.toList());
-
-        dto.setOrderItems(items);
-
-        if (order.getAddress() != null) dto.setAddressId(order.getAddress().getAddressId());
-
-        return dto;
+        return orderMapper.toDto(order, orderItems == null ? List.of() : orderItems);
     }
 }
@@ -0,0 +1,67 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.model.ImageVariant;
+import com.onlinepharmacy.backend.model.StoredImage;
+import com.onlinepharmacy.backend.repositories.StoredImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+
+// Deletes stored images whose reference count has stayed at zero for the grace period. The row is
+// deleted first and kept locked until the files are gone, so a concurrent upload of the same content
+// waits and then re-creates both.
+@Service
+public class OrphanImageCleanupJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanImageCleanupJob.class);
+
+    @Value("${backend.image}")
+    private String path;
+
+    @Value("${app.image.orphan-grace-minutes:60}")
+    private long graceMinutes;
+
+    private final StoredImageRepository storedImageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrphanImageCleanupJob(StoredImageRepository storedImageRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.storedImageRepository = storedImageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.image.cleanup-interval-ms:3600000}")
+    public void run() {
+        Path dir = Paths.get(path);
+        for (StoredImage image : storedImageRepository.findUnreferenced(LocalDateTime.now().minusMinutes(graceMinutes))) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (storedImageRepository.deleteIfUnreferenced(image.getHash()) == 0) {
+                    return;
+                }
+                String fileName = image.getFileName();
+                delete(dir.resolve(fileName));
+                for (ImageVariant variant : ImageVariant.values()) {
+                    delete(dir.resolve(variant.fileName(fileName)));
+                }
+            });
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete orphaned image {}", file, e);
+        }
+    }
+}
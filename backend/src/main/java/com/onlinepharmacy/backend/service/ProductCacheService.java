@@ -0,0 +1,106 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.payload.CacheStatsResponse;
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.payload.ProductDetailsResponse;
+import com.onlinepharmacy.backend.payload.ProductFullResponse;
+import com.onlinepharmacy.backend.payload.ProductResponse;
+import com.onlinepharmacy.backend.util.TinyLfuCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductCacheService {
+
+    private final TinyLfuCache<Long, ProductDTO> products;
+    private final TinyLfuCache<Long, ProductFullResponse> productPages;
+    private final TinyLfuCache<Long, ProductDetailsResponse> details;
+    private final TinyLfuCache<String, ProductResponse> listings;
+
+    public ProductCacheService(@Value("${app.cache.product.max-size:10000}") int productMaxSize,
+                               @Value("${app.cache.product.ttl-seconds:600}") long productTtlSeconds,
+                               @Value("${app.cache.listing.max-size:500}") int listingMaxSize,
+                               @Value("${app.cache.listing.ttl-seconds:120}") long listingTtlSeconds) {
+        this.products = new TinyLfuCache<>("products", productMaxSize, productTtlSeconds, ProductCacheService::copy);
+        this.productPages = new TinyLfuCache<>("productFull", productMaxSize, productTtlSeconds, ProductCacheService::copy);
+        this.details = new TinyLfuCache<>("productDetails", productMaxSize, productTtlSeconds, ProductCacheService::copy);
+        this.listings = new TinyLfuCache<>("productListings", listingMaxSize, listingTtlSeconds, ProductCacheService::copy);
+    }
+
+    public ProductDTO getProduct(Long productId, Supplier<ProductDTO> loader) {
+        return products.getOrLoad(productId, id -> loader.get());
+    }
+
+    public ProductFullResponse getProductFull(Long productId, Supplier<ProductFullResponse> loader) {
+        return productPages.getOrLoad(productId, id -> loader.get());
+    }
+
+    // Products without details are cached too, as the empty response, so they never re-query.
+    public ProductDetailsResponse getDetails(Long productId, Supplier<ProductDetailsResponse> loader) {
+        return details.getOrLoad(productId, id -> loader.get());
+    }
+
+    public ProductResponse getListing(String key, Supplier<ProductResponse> loader) {
+        return listings.getOrLoad(key, k -> loader.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (Long productId : event.productIds()) {
+            products.invalidate(productId);
+            productPages.invalidate(productId);
+            details.invalidate(productId);
+        }
+        listings.invalidateAll();
+    }
+
+    public List<CacheStatsResponse> getStats() {
+        return List.of(toStats(products), toStats(productPages), toStats(details), toStats(listings));
+    }
+
+    private static ProductDTO copy(ProductDTO dto) {
+        return new ProductDTO(dto.getProductId(), dto.getProductName(), dto.getImage(), dto.getDescription(),
+                dto.getQuantity(), dto.getPrice(), dto.getDiscount(), dto.getSpecialPrice(),
+                dto.getThumbnailImage(), dto.getCardImage(), dto.getFullImage());
+    }
+
+    private static ProductDetailsResponse copy(ProductDetailsResponse details) {
+        return new ProductDetailsResponse(details.getProductId(), details.getIngredients(), details.getUsageDosage(),
+                details.getStorageInfo(), details.getSideEffects(), details.getExpiryDate());
+    }
+
+    private static ProductFullResponse copy(ProductFullResponse page) {
+        return new ProductFullResponse(page.getProduct() == null ? null : copy(page.getProduct()),
+                page.getDetails() == null ? null : copy(page.getDetails()));
+    }
+
+    private static ProductResponse copy(ProductResponse listing) {
+        List<ProductDTO> content = listing.getContent() == null ? null
+                : listing.getContent().stream().map(ProductCacheService::copy).collect(Collectors.toList());
+        return new ProductResponse(content, listing.getPageNumber(), listing.getPageSize(),
+                listing.getTotalElements(), listing.getTotalPages(), listing.getLastPage(),
+                listing.getNextCursor(), listing.getSuggestion());
+    }
+
+    private CacheStatsResponse toStats(TinyLfuCache<?, ?> cache) {
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        long requests = hits + misses;
+        return new CacheStatsResponse(
+                cache.getName(),
+                cache.size(),
+                cache.getMaximumSize(),
+                hits,
+                misses,
+                cache.getEvictions(),
+                requests == 0 ? 0.0 : (double) hits / requests,
+                null,
+                null
+        );
+    }
+}
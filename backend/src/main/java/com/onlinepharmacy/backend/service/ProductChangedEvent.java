@@ -0,0 +1,31 @@
+package com.onlinepharmacy.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public record ProductChangedEvent(Set<Long> productIds) {
+
+    // Listeners reload the changed rows with one "in :productIds" query, so a single event has to stay
+    // well below PostgreSQL's 32767 bind parameters.
+    public static final int MAX_PRODUCT_IDS = 1000;
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(Set.of(productId));
+    }
+
+    public static ProductChangedEvent of(Collection<Long> productIds) {
+        return new ProductChangedEvent(Set.copyOf(productIds));
+    }
+
+    // For changes that can touch any number of products, such as bulk repricing or deleting a category.
+    public static List<ProductChangedEvent> inChunks(Collection<Long> productIds) {
+        List<Long> ids = List.copyOf(Set.copyOf(productIds));
+        List<ProductChangedEvent> events = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_PRODUCT_IDS) {
+            events.add(of(ids.subList(from, Math.min(from + MAX_PRODUCT_IDS, ids.size()))));
+        }
+        return events;
+    }
+}
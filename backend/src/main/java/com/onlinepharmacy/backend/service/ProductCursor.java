@@ -0,0 +1,47 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.exceptions.APIException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+record ProductCursor(String sortBy, String sortOrder, Long productId, Object sortValue) {
+
+    static final Set<String> SORTABLE_PROPERTIES =
+            Set.of("productId", "productName", "price", "discount", "specialPrice");
+
+    static ProductCursor decode(String token, String sortBy, String sortOrder) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new APIException("Invalid cursor");
+        }
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new APIException("Invalid cursor");
+        }
+        if (!parts[0].equals(sortBy) || !parts[1].equalsIgnoreCase(sortOrder)) {
+            throw new APIException("Cursor does not match the requested sort order");
+        }
+        try {
+            return new ProductCursor(parts[0], parts[1], Long.valueOf(parts[2]), parseValue(parts[0], parts[3]));
+        } catch (NumberFormatException e) {
+            throw new APIException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = sortBy + "|" + sortOrder.toLowerCase() + "|" + productId + "|" + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object parseValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "productId" -> Long.valueOf(value);
+            case "productName" -> value;
+            default -> Double.valueOf(value);
+        };
+    }
+}
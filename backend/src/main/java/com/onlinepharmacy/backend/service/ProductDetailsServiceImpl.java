@@ -1,15 +1,16 @@
 package com.onlinepharmacy.backend.service;
 
 import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.mapper.ProductMapper;
 import com.onlinepharmacy.backend.model.Product;
 import com.onlinepharmacy.backend.model.ProductDetails;
-import com.onlinepharmacy.backend.payload.ProductDTO;
 import com.onlinepharmacy.backend.payload.ProductDetailsRequest;
 import com.onlinepharmacy.backend.payload.ProductDetailsResponse;
 import com.onlinepharmacy.backend.payload.ProductFullResponse;
 import com.onlinepharmacy.backend.repositories.ProductDetailsRepository;
 import com.onlinepharmacy.backend.repositories.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.onlinepharmacy.backend.repositories.projection.ProductFullView;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,45 +19,55 @@ public class ProductDetailsServiceImpl implements ProductDetailsService {
 
     private final ProductRepository productRepo;
     private final ProductDetailsRepository detailsRepo;
-    private final ModelMapper mapper;
+    private final ProductMapper productMapper;
+    private final ProductCacheService productCacheService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductDetailsServiceImpl(ProductRepository productRepo,
                                      ProductDetailsRepository detailsRepo,
-                                     ModelMapper mapper) {
+                                     ProductMapper productMapper,
+                                     ProductCacheService productCacheService,
+                                     ApplicationEventPublisher eventPublisher) {
         this.productRepo = productRepo;
         this.detailsRepo = detailsRepo;
-        this.mapper = mapper;
+        this.productMapper = productMapper;
+        this.productCacheService = productCacheService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public ProductDetailsResponse getDetails(Long productId) {
-        ProductDetails d = detailsRepo.findByProduct_ProductId(productId).orElse(null);
-
-        if (d == null) {
-
-            return ProductDetailsResponse.builder()
-                    .productId(productId)
-                    .ingredients("")
-                    .usageDosage("")
-                    .storageInfo("")
-                    .sideEffects("")
-                    .expiryDate(null)
-                    .build();
-        }
+        return productCacheService.getDetails(productId, () -> loadDetails(productId));
+    }
 
-        return toResponse(d);
+    private ProductDetailsResponse loadDetails(Long productId) {
+        return detailsRepo.findByProduct_ProductId(productId)
+                .map(this::toResponse)
+                .orElseGet(() -> emptyDetails(productId));
     }
 
     @Override
     public ProductFullResponse getProductFull(Long productId) {
-        Product p = productRepo.findById(productId)
+        return productCacheService.getProductFull(productId, () -> loadProductFull(productId));
+    }
+
+    private ProductFullResponse loadProductFull(Long productId) {
+        ProductFullView view = productRepo.findFullView(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        ProductDTO productDTO = mapper.map(p, ProductDTO.class);
-        ProductDetailsResponse details = getDetails(productId);
+        ProductDetailsResponse details = view.detailsId() == null
+                ? emptyDetails(productId)
+                : ProductDetailsResponse.builder()
+                        .productId(productId)
+                        .ingredients(view.ingredients() != null ? view.ingredients() : "")
+                        .usageDosage(view.usageDosage() != null ? view.usageDosage() : "")
+                        .storageInfo(view.storageInfo() != null ? view.storageInfo() : "")
+                        .sideEffects(view.sideEffects() != null ? view.sideEffects() : "")
+                        .expiryDate(view.expiryDate())
+                        .build();
 
         return ProductFullResponse.builder()
-                .product(productDTO)
+                .product(productMapper.toDto(view))
                 .details(details)
                 .build();
     }
@@ -80,9 +91,21 @@ public class ProductDetailsServiceImpl implements ProductDetailsService {
         d.setExpiryDate(req.getExpiryDate());
 
         ProductDetails saved = detailsRepo.save(d);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
         return toResponse(saved);
     }
 
+    private ProductDetailsResponse emptyDetails(Long productId) {
+        return ProductDetailsResponse.builder()
+                .productId(productId)
+                .ingredients("")
+                .usageDosage("")
+                .storageInfo("")
+                .sideEffects("")
+                .expiryDate(null)
+                .build();
+    }
+
     private ProductDetailsResponse toResponse(ProductDetails d) {
         Long pid = (d.getProduct() != null) ? d.getProduct().getProductId() : null;
 
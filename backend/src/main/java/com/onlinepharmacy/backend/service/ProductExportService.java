@@ -0,0 +1,117 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.util.CsvWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Streams the catalog row by row from a forward-only cursor; nothing but the current row is held in memory.
+// Column names match the bulk import format so an export can be edited and imported again.
+@Service
+public class ProductExportService {
+
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+            "productId", "productName", "image", "description", "quantity",
+            "price", "discount", "specialPrice", "categoryId", "categoryName");
+    private static final List<String> DETAIL_COLUMNS = List.of(
+            "ingredients", "usageDosage", "storageInfo", "sideEffects", "expiryDate");
+
+    private static final String PRODUCT_SQL = """
+            select p.product_id, p.product_name, p.image, p.description, p.quantity,
+                   p.price, p.discount, p.special_price, c.category_id, c.category_name
+            from products p
+            left join categories c on c.category_id = p.category_id
+            order by p.product_id
+            """;
+    private static final String PRODUCT_WITH_DETAILS_SQL = """
+            select p.product_id, p.product_name, p.image, p.description, p.quantity,
+                   p.price, p.discount, p.special_price, c.category_id, c.category_name,
+                   d.ingredients, d.usage_dosage, d.storage_info, d.side_effects, d.expiry_date
+            from products p
+            left join categories c on c.category_id = p.category_id
+            left join product_details d on d.product_id = p.product_id
+            order by p.product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    // The read-only transaction turns off auto-commit, which the PostgreSQL driver needs to honour the fetch size.
+    public void export(OutputStream out, CatalogFormat format, boolean includeDetails) throws IOException {
+        List<String> columns = new ArrayList<>(PRODUCT_COLUMNS);
+        if (includeDetails) {
+            columns.addAll(DETAIL_COLUMNS);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CsvWriter csv = new CsvWriter(writer);
+        if (format == CatalogFormat.CSV) {
+            csv.writeRecord(columns);
+        }
+        try {
+            readOnlyTx.executeWithoutResult(status ->
+                    jdbcTemplate.query(includeDetails ? PRODUCT_WITH_DETAILS_SQL : PRODUCT_SQL, rs -> {
+                        try {
+                            if (format == CatalogFormat.CSV) {
+                                csv.writeRecord(values(rs, columns.size()));
+                            } else {
+                                writer.write(objectMapper.writeValueAsString(toMap(columns, values(rs, columns.size()))));
+                                writer.write('\n');
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static List<Object> values(ResultSet rs, int columnCount) throws SQLException {
+        List<Object> values = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            Object value = rs.getObject(i);
+            values.add(value instanceof Date date ? date.toLocalDate().toString() : value);
+        }
+        return values;
+    }
+
+    private static Map<String, Object> toMap(List<String> columns, List<Object> values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i), values.get(i));
+        }
+        return row;
+    }
+}
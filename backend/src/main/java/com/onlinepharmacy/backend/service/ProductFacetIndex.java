@@ -0,0 +1,234 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+// Per-facet-value bitmaps over dense product ordinals. Filters within one facet are OR-ed,
+// different facets are AND-ed, and each facet is counted against the other facets' filters.
+@Service
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String PRICE = "price";
+    public static final String DISCOUNT = "discount";
+    public static final String AVAILABILITY = "availability";
+    public static final String IN_STOCK = "inStock";
+    public static final String OUT_OF_STOCK = "outOfStock";
+
+    private static final Bucket[] PRICE_BUCKETS = {
+            new Bucket("0-100", 0, 100),
+            new Bucket("100-250", 100, 250),
+            new Bucket("250-500", 250, 500),
+            new Bucket("500-1000", 500, 1000),
+            new Bucket("1000+", 1000, Double.MAX_VALUE)
+    };
+    private static final Bucket[] DISCOUNT_BUCKETS = {
+            new Bucket("none", 0, 0.0001),
+            new Bucket("0-10", 0.0001, 10),
+            new Bucket("10-25", 10, 25),
+            new Bucket("25-50", 25, 50),
+            new Bucket("50+", 50, Double.MAX_VALUE)
+    };
+
+    private final ProductRepository productRepository;
+    private final CategoryTreeIndex categoryTreeIndex;
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<ProductFacetView> rows = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, Map<String, BitSet>> bitmaps = new LinkedHashMap<>();
+    private final BitSet live = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductFacetIndex(ProductRepository productRepository, CategoryTreeIndex categoryTreeIndex) {
+        this.productRepository = productRepository;
+        this.categoryTreeIndex = categoryTreeIndex;
+        bitmaps.put(CATEGORY, new LinkedHashMap<>());
+        bitmaps.put(PRICE, new LinkedHashMap<>());
+        bitmaps.put(DISCOUNT, new LinkedHashMap<>());
+        bitmaps.put(AVAILABILITY, new LinkedHashMap<>());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductFacetView> views = productRepository.findAllFacetViews();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            productIds.clear();
+            rows.clear();
+            freeOrdinals.clear();
+            live.clear();
+            bitmaps.values().forEach(Map::clear);
+            views.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductFacetView> views = productRepository.findFacetViews(event.productIds());
+        lock.writeLock().lock();
+        try {
+            event.productIds().forEach(this::remove);
+            views.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult query(Map<String, Collection<String>> filters) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> perFacet = new HashMap<>();
+            for (Map.Entry<String, Collection<String>> filter : filters.entrySet()) {
+                if (filter.getValue() == null || filter.getValue().isEmpty()) continue;
+                BitSet union = new BitSet();
+                Map<String, BitSet> values = bitmaps.getOrDefault(filter.getKey(), Map.of());
+                for (String value : expand(filter.getKey(), filter.getValue())) {
+                    BitSet bits = values.get(value);
+                    if (bits != null) union.or(bits);
+                }
+                perFacet.put(filter.getKey(), union);
+            }
+
+            BitSet matches = intersectExcept(perFacet, null);
+            List<Long> ids = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                ids.add(productIds.get(i));
+            }
+
+            Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, BitSet>> facet : bitmaps.entrySet()) {
+                BitSet base = intersectExcept(perFacet, facet.getKey());
+                Map<String, Long> valueCounts = new LinkedHashMap<>();
+                for (Map.Entry<String, BitSet> value : facet.getValue().entrySet()) {
+                    BitSet bits = (BitSet) value.getValue().clone();
+                    bits.and(base);
+                    valueCounts.put(value.getKey(), (long) bits.cardinality());
+                }
+                counts.put(facet.getKey(), facet.getKey().equals(CATEGORY) ? rollUp(valueCounts) : valueCounts);
+            }
+            return new FacetResult(ids, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Products are indexed under their own category only; a category filter matches its whole subtree.
+    private Collection<String> expand(String facet, Collection<String> values) {
+        if (!facet.equals(CATEGORY)) {
+            return values;
+        }
+        Set<String> expanded = new HashSet<>();
+        for (String value : values) {
+            expanded.add(value);
+            try {
+                categoryTreeIndex.subtree(Long.valueOf(value)).forEach(id -> expanded.add(String.valueOf(id)));
+            } catch (NumberFormatException e) {
+                // not a category id, matches nothing
+            }
+        }
+        return expanded;
+    }
+
+    // Each product sits in exactly one category, so a category's subtree count is the sum of the
+    // direct counts along the paths below it.
+    private Map<String, Long> rollUp(Map<String, Long> directCounts) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        directCounts.forEach((value, count) -> {
+            List<Long> path = categoryTreeIndex.path(Long.valueOf(value));
+            if (path.isEmpty()) {
+                counts.merge(value, count, Long::sum);
+            }
+            path.forEach(categoryId -> counts.merge(String.valueOf(categoryId), count, Long::sum));
+        });
+        return counts;
+    }
+
+    private BitSet intersectExcept(Map<String, BitSet> perFacet, String excluded) {
+        BitSet result = (BitSet) live.clone();
+        perFacet.forEach((facet, bits) -> {
+            if (!facet.equals(excluded)) result.and(bits);
+        });
+        return result;
+    }
+
+    private void add(ProductFacetView view) {
+        int ordinal;
+        if (freeOrdinals.isEmpty()) {
+            ordinal = productIds.size();
+            productIds.add(view.productId());
+            rows.add(view);
+        } else {
+            ordinal = freeOrdinals.pop();
+            productIds.set(ordinal, view.productId());
+            rows.set(ordinal, view);
+        }
+        ordinals.put(view.productId(), ordinal);
+        live.set(ordinal);
+        forEachValue(view, (facet, value) ->
+                bitmaps.get(facet).computeIfAbsent(value, k -> new BitSet()).set(ordinal));
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        forEachValue(rows.get(ordinal), (facet, value) -> {
+            Map<String, BitSet> values = bitmaps.get(facet);
+            BitSet bits = values.get(value);
+            bits.clear(ordinal);
+            if (bits.isEmpty() && facet.equals(CATEGORY)) values.remove(value);
+        });
+        live.clear(ordinal);
+        rows.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+    }
+
+    private void forEachValue(ProductFacetView view, BiConsumer<String, String> consumer) {
+        if (view.categoryId() != null) {
+            consumer.accept(CATEGORY, String.valueOf(view.categoryId()));
+        }
+        consumer.accept(PRICE, bucketOf(PRICE_BUCKETS, view.specialPrice()));
+        consumer.accept(DISCOUNT, bucketOf(DISCOUNT_BUCKETS, view.discount()));
+        boolean inStock = view.quantity() != null && view.quantity() > 0;
+        consumer.accept(AVAILABILITY, inStock ? IN_STOCK : OUT_OF_STOCK);
+    }
+
+    private static String bucketOf(Bucket[] buckets, double value) {
+        for (Bucket bucket : buckets) {
+            if (value >= bucket.from() && value < bucket.to()) {
+                return bucket.label();
+            }
+        }
+        return buckets[0].label();
+    }
+
+    private record Bucket(String label, double from, double to) {
+    }
+
+    public record FacetResult(List<Long> productIds, Map<String, Map<String, Long>> counts) {
+    }
+}
@@ -0,0 +1,4 @@
+package com.onlinepharmacy.backend.service;
+
+public record ProductImageChangedEvent(Long productId, String image) {
+}
@@ -0,0 +1,396 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.exceptions.APIException;
+import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.ProductImportError;
+import com.onlinepharmacy.backend.payload.ProductImportJobResponse;
+import com.onlinepharmacy.backend.payload.ProductImportRow;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TaskExecutor importExecutor;
+    private final FileService fileService;
+    private final TransactionTemplate tx;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.import.job-retention-hours:24}")
+    private long jobRetentionHours;
+
+    public ProductImportService(CategoryRepository categoryRepository,
+                                ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Qualifier("productImportExecutor") TaskExecutor importExecutor,
+                                FileService fileService,
+                                PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.importExecutor = importExecutor;
+        this.fileService = fileService;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    // The body is spooled to a temp file so the request can finish while rows are imported in the background.
+    public ProductImportJobResponse startImport(InputStream body, CatalogFormat format) throws IOException {
+        Path spool = Files.createTempFile("product-import-", "." + format.getExtension());
+        Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(jobRetentionHours);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(cutoff));
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job, spool));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(spool);
+            throw new APIException("Import queue is full, please retry later");
+        }
+        return job.toResponse();
+    }
+
+    public ProductImportJobResponse getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "jobId", jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path spool) {
+        job.status = "RUNNING";
+        Map<String, Optional<Long>> categories = new HashMap<>();
+        List<StagedRow> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            if (job.format == CatalogFormat.CSV) {
+                readCsv(reader, job, categories, batch);
+            } else {
+                readNdjson(reader, job, categories, batch);
+            }
+            flush(job, batch);
+            job.status = "COMPLETED";
+        } catch (Exception e) {
+            logger.error("Product import {} failed", job.id, e);
+            job.status = "FAILED";
+            job.error(job.processed.get(), "Import aborted: " + e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                logger.warn("Could not delete import spool file {}", spool, e);
+            }
+        }
+        logger.info("Product import {} {}: {} imported, {} failed", job.id, job.status,
+                job.imported.get(), job.failed.get());
+    }
+
+    private void readCsv(BufferedReader reader, ImportJob job, Map<String, Optional<Long>> categories,
+                         List<StagedRow> batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        header = header.stream().map(h -> h.replace("\uFEFF", "").trim().toLowerCase()).toList();
+        List<String> record;
+        while ((record = csv.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            long row = job.processed.incrementAndGet();
+            try {
+                stage(job, row, fromCsv(header, record), categories, batch);
+            } catch (IllegalArgumentException e) {
+                job.reject(row, e.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportJob job, Map<String, Optional<Long>> categories,
+                            List<StagedRow> batch) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = job.processed.incrementAndGet();
+            try {
+                stage(job, row, objectMapper.readValue(line, ProductImportRow.class), categories, batch);
+            } catch (JacksonException e) {
+                job.reject(row, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                job.reject(row, e.getMessage());
+            }
+        }
+    }
+
+    private ProductImportRow fromCsv(List<String> header, List<String> record) {
+        ProductImportRow row = new ProductImportRow();
+        for (int i = 0; i < header.size() && i < record.size(); i++) {
+            String value = record.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (header.get(i)) {
+                case "productid" -> row.setProductId(parse(value, "productId", Long::valueOf));
+                case "productname" -> row.setProductName(value);
+                case "image" -> row.setImage(value);
+                case "description" -> row.setDescription(value);
+                case "quantity" -> row.setQuantity(parse(value, "quantity", Integer::valueOf));
+                case "price" -> row.setPrice(parse(value, "price", Double::valueOf));
+                case "discount" -> row.setDiscount(parse(value, "discount", Double::valueOf));
+                case "specialprice" -> row.setSpecialPrice(parse(value, "specialPrice", Double::valueOf));
+                case "categoryid" -> row.setCategoryId(parse(value, "categoryId", Long::valueOf));
+                case "categoryname" -> row.setCategoryName(value);
+                default -> { }
+            }
+        }
+        return row;
+    }
+
+    private static <T> T parse(String value, String field, Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private void stage(ImportJob job, long rowNumber, ProductImportRow row, Map<String, Optional<Long>> categories,
+                       List<StagedRow> batch) {
+        var violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        Long categoryId = resolveCategory(row, categories);
+        batch.add(new StagedRow(rowNumber, row, categoryId));
+        if (batch.size() >= batchSize) {
+            flush(job, batch);
+        }
+    }
+
+    private Long resolveCategory(ProductImportRow row, Map<String, Optional<Long>> categories) {
+        if (row.getCategoryId() != null) {
+            Long id = row.getCategoryId();
+            return categories.computeIfAbsent("id:" + id,
+                            k -> categoryRepository.existsById(id) ? Optional.of(id) : Optional.empty())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown categoryId: " + id));
+        }
+        if (row.getCategoryName() != null && !row.getCategoryName().isBlank()) {
+            String name = row.getCategoryName().trim();
+            return categories.computeIfAbsent("name:" + name,
+                            k -> categoryRepository.findByCategoryName(name).map(Category::getCategoryId))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown categoryName: " + name));
+        }
+        throw new IllegalArgumentException("categoryId or categoryName is required");
+    }
+
+    // A failing batch is replayed row by row so the offending rows can be reported and the rest kept.
+    private void flush(ImportJob job, List<StagedRow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            tx.executeWithoutResult(status -> persist(batch));
+            job.imported.addAndGet(batch.size());
+        } catch (RuntimeException batchFailure) {
+            for (StagedRow staged : batch) {
+                try {
+                    tx.executeWithoutResult(status -> persist(List.of(staged)));
+                    job.imported.incrementAndGet();
+                } catch (RuntimeException e) {
+                    job.reject(staged.rowNumber(), rootMessage(e));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    // Rows carrying the productId of an existing product update it, so an export can be edited and
+    // imported again; other rows are inserted unless the category already has a product of that name.
+    private void persist(List<StagedRow> rows) {
+        Map<Long, Product> existing = productRepository.findAllById(rows.stream()
+                        .map(staged -> staged.row().getProductId())
+                        .filter(Objects::nonNull)
+                        .toList()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        Map<String, Long> names = new HashMap<>();
+        productRepository.findNamesInCategories(
+                        rows.stream().map(StagedRow::categoryId).collect(Collectors.toSet()),
+                        rows.stream().map(staged -> staged.row().getProductName()).collect(Collectors.toSet()))
+                .forEach(view -> names.put(nameKey(view.categoryId(), view.productName()), view.productId()));
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<String> retained = new ArrayList<>();
+        List<String> released = new ArrayList<>();
+        for (StagedRow staged : rows) {
+            Product product = existing.get(staged.row().getProductId());
+            String key = nameKey(staged.categoryId(), staged.row().getProductName());
+            Long owner = names.get(key);
+            if (owner != null && (product == null || !owner.equals(product.getProductId()))) {
+                throw new APIException("Product already exist!!");
+            }
+            if (product == null) {
+                product = new Product();
+                apply(product, staged);
+                entityManager.persist(product);
+                retained.add(product.getImage());
+            } else {
+                if (product.getCategory() != null) {
+                    names.remove(nameKey(product.getCategory().getCategoryId(), product.getProductName()),
+                            product.getProductId());
+                }
+                String previousImage = product.getImage();
+                apply(product, staged);
+                if (!product.getImage().equals(previousImage)) {
+                    retained.add(product.getImage());
+                    released.add(previousImage);
+                }
+            }
+            names.put(key, product.getProductId());
+            ids.add(product.getProductId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        retained.forEach(fileService::retainImage);
+        released.forEach(fileService::releaseImage);
+        eventPublisher.publishEvent(ProductChangedEvent.of(ids));
+    }
+
+    // An update without an image keeps the current one.
+    private void apply(Product product, StagedRow staged) {
+        ProductImportRow row = staged.row();
+        double discount = row.getDiscount() != null ? row.getDiscount() : 0.0;
+        double specialPrice = row.getSpecialPrice() != null
+                ? row.getSpecialPrice()
+                : row.getPrice() - ((discount * 0.01) * row.getPrice());
+        if (product.getProductId() != null && (product.getPrice() != row.getPrice()
+                || product.getDiscount() != discount || product.getSpecialPrice() != specialPrice)) {
+            product.setPriceVersion(product.getPriceVersion() + 1);
+        }
+        product.setProductName(row.getProductName());
+        if (row.getImage() != null && !row.getImage().isBlank()) {
+            product.setImage(row.getImage());
+        } else if (product.getImage() == null) {
+            product.setImage("default.png");
+        }
+        product.setDescription(row.getDescription());
+        product.setQuantity(row.getQuantity());
+        product.setPrice(row.getPrice());
+        product.setDiscount(discount);
+        product.setSpecialPrice(specialPrice);
+        product.setCategory(entityManager.getReference(Category.class, staged.categoryId()));
+    }
+
+    private static String nameKey(Long categoryId, String productName) {
+        return categoryId + ":" + productName;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private record StagedRow(long rowNumber, ProductImportRow row, Long categoryId) {
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final CatalogFormat format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<ProductImportError> errors = new ArrayList<>();
+        private volatile String status = "QUEUED";
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id, CatalogFormat format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void reject(long row, String message) {
+            failed.incrementAndGet();
+            error(row, message);
+        }
+
+        private synchronized void error(long row, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportError(row, message));
+            }
+        }
+
+        private synchronized ProductImportJobResponse toResponse() {
+            return new ProductImportJobResponse(id, status, format.name(), processed.get(), imported.get(),
+                    failed.get(), startedAt, finishedAt, List.copyOf(errors));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductSearchDocument;
+import com.onlinepharmacy.backend.util.FuzzyMatcher;
+import com.onlinepharmacy.backend.util.TextAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_BOOST = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private final Map<Long, List<String>> nameTokens = new HashMap<>();
+    private final FuzzyMatcher spelling = new FuzzyMatcher();
+    private long totalLength;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<ProductSearchDocument> docs = productRepository.streamSearchDocuments()) {
+                lock.writeLock().lock();
+                try {
+                    postings.clear();
+                    documents.clear();
+                    documentLengths.clear();
+                    nameTokens.clear();
+                    spelling.clear();
+                    totalLength = 0;
+                    docs.forEach(this::addDocument);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+        logger.info("Product search index built with {} documents in {} ms",
+                documentLengths.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductSearchDocument> docs = productRepository.findSearchDocuments(event.productIds());
+        lock.writeLock().lock();
+        try {
+            event.productIds().forEach(this::removeDocument);
+            docs.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        Set<String> terms = new HashSet<>(TextAnalyzer.analyze(query));
+        lock.readLock().lock();
+        try {
+            return rank(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rewrites the words of the query that match nothing in the catalog to the closest product-name
+    // word by spelling or sound. Returns null when there is nothing to correct.
+    public String suggest(String query) {
+        lock.readLock().lock();
+        try {
+            List<String> corrected = new ArrayList<>();
+            boolean changed = false;
+            for (String token : TextAnalyzer.tokenize(query)) {
+                String replacement = token;
+                List<String> terms = TextAnalyzer.analyze(token);
+                if (!terms.isEmpty() && !spelling.contains(token) && postingsFor(terms.get(0)).isEmpty()) {
+                    List<String> candidates = spelling.suggest(token, 1);
+                    if (!candidates.isEmpty()) {
+                        replacement = candidates.get(0);
+                        changed = true;
+                    }
+                }
+                corrected.add(replacement);
+            }
+            return changed ? String.join(" ", corrected) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> rank(Set<String> terms) {
+        int documentCount = documentLengths.size();
+        if (terms.isEmpty() || documentCount == 0) {
+            return List.of();
+        }
+        double averageLength = (double) totalLength / documentCount;
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            for (Map<Long, Integer> termPostings : postingsFor(term)) {
+                score(termPostings, documentCount, averageLength, scores);
+            }
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    // Exact term first; otherwise treat the term as a prefix so partially typed words still match.
+    private List<Map<Long, Integer>> postingsFor(String term) {
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            return List.of(exact);
+        }
+        return postings.subMap(term, true, term + Character.MAX_VALUE, false).values().stream()
+                .limit(MAX_PREFIX_EXPANSIONS)
+                .toList();
+    }
+
+    private void score(Map<Long, Integer> termPostings, int documentCount, double averageLength,
+                       Map<Long, Double> scores) {
+        int df = termPostings.size();
+        double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        for (Map.Entry<Long, Integer> posting : termPostings.entrySet()) {
+            int tf = posting.getValue();
+            double norm = K1 * (1 - B + B * documentLengths.get(posting.getKey()) / averageLength);
+            scores.merge(posting.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+        }
+    }
+
+    private void addDocument(ProductSearchDocument doc) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (String term : TextAnalyzer.analyze(doc.productName())) {
+            termFrequencies.merge(term, NAME_BOOST, Integer::sum);
+        }
+        for (String term : TextAnalyzer.analyze(doc.description())) {
+            termFrequencies.merge(term, 1, Integer::sum);
+        }
+        for (String term : TextAnalyzer.analyze(doc.ingredients())) {
+            termFrequencies.merge(term, 1, Integer::sum);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(doc.productId(), entry.getValue());
+            length += entry.getValue();
+        }
+        List<String> words = TextAnalyzer.tokenize(doc.productName());
+        words.forEach(spelling::add);
+        nameTokens.put(doc.productId(), words);
+        documents.put(doc.productId(), termFrequencies);
+        documentLengths.put(doc.productId(), length);
+        totalLength += length;
+    }
+
+    private void removeDocument(Long productId) {
+        Map<String, Integer> termFrequencies = documents.remove(productId);
+        if (termFrequencies == null) {
+            return;
+        }
+        for (String term : termFrequencies.keySet()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(productId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        nameTokens.remove(productId).forEach(spelling::remove);
+        totalLength -= documentLengths.remove(productId);
+    }
+}
@@ -1,10 +1,16 @@
 package com.onlinepharmacy.backend.service;
 
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateRequest;
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateResponse;
+import com.onlinepharmacy.backend.payload.FacetedProductResponse;
 import com.onlinepharmacy.backend.payload.ProductDTO;
 import com.onlinepharmacy.backend.payload.ProductResponse;
+import com.onlinepharmacy.backend.payload.SuggestionDTO;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 public interface ProductService {
     ProductDTO addProduct(Long categoryId, ProductDTO product);
@@ -15,12 +21,24 @@ public interface ProductService {
 
     ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    ProductResponse scrollProducts(Long categoryId, String keyword, String after, Integer pageSize,
+                                   String sortBy, String sortOrder, boolean includeTotal);
+
+    List<SuggestionDTO> suggestProducts(String query, Integer limit);
+
+    FacetedProductResponse browseProducts(List<Long> categoryIds, List<String> priceRanges, List<String> discountRanges,
+                                          Boolean inStock, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+
     ProductDTO updateProduct(Long productId, ProductDTO product);
 
+    BulkPriceUpdateResponse bulkUpdatePrices(BulkPriceUpdateRequest request);
+
     ProductDTO deleteProduct(Long productId);
 
     ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException;
 
+    ProductDTO updateProductImage(Long productId, InputStream image) throws IOException;
+
     ProductDTO getProductById(Long productId);
 
 
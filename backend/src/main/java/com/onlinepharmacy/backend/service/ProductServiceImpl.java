@@ -3,28 +3,42 @@ package com.onlinepharmacy.backend.service;
 
 import com.onlinepharmacy.backend.exceptions.APIException;
 import com.onlinepharmacy.backend.exceptions.ResourceNotFoundException;
+import com.onlinepharmacy.backend.mapper.ProductMapper;
 import com.onlinepharmacy.backend.model.Cart;
 import com.onlinepharmacy.backend.model.Category;
 import com.onlinepharmacy.backend.model.Product;
-import com.onlinepharmacy.backend.payload.CartDTO;
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateRequest;
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateResponse;
+import com.onlinepharmacy.backend.payload.FacetedProductResponse;
 import com.onlinepharmacy.backend.payload.ProductDTO;
 import com.onlinepharmacy.backend.payload.ProductResponse;
+import com.onlinepharmacy.backend.payload.SuggestionDTO;
 import com.onlinepharmacy.backend.repositories.CartRepository;
 import com.onlinepharmacy.backend.repositories.CategoryRepository;
 import com.onlinepharmacy.backend.repositories.ProductRepository;
-import org.modelmapper.ModelMapper;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import jakarta.transaction.Transactional;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -41,39 +55,60 @@ public class ProductServiceImpl implements ProductService {
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ProductMapper productMapper;
 
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductSuggestService productSuggestService;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private CatalogSortIndex catalogSortIndex;
+
+    @Autowired
+    private CategoryTreeIndex categoryTreeIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Value("${backend.image}")
     private String path;
 
+    @Value("${app.pricing.bulk-chunk-size:1000}")
+    private int bulkChunkSize;
+
+    @Value("${app.paging.max-page-size:200}")
+    private int maxPageSize;
+
     @Override
     public ProductDTO addProduct(Long categoryId, ProductDTO productDTO) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Category", "categoryId", categoryId));
 
-        boolean isProductNotPresent = true;
-
-        List<Product> products = category.getProducts();
-        for (Product value : products) {
-            if (value.getProductName().equals(productDTO.getProductName())) {
-                isProductNotPresent = false;
-                break;
-            }
-        }
+        boolean isProductNotPresent =
+                !productRepository.existsByCategory_CategoryIdAndProductName(categoryId, productDTO.getProductName());
 
         if (isProductNotPresent) {
-            Product product = modelMapper.map(productDTO, Product.class);
+            Product product = productMapper.toEntity(productDTO);
             product.setImage("default.png");
             product.setCategory(category);
             double specialPrice = product.getPrice() -
                     ((product.getDiscount() * 0.01) * product.getPrice());
             product.setSpecialPrice(specialPrice);
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct, ProductDTO.class);
+            eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getProductId()));
+            return productMapper.toDto(savedProduct);
         } else {
             throw new APIException("Product already exist!!");
         }
@@ -81,17 +116,29 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+        String cacheKey = "all:" + pageNumber + ":" + pageSize + ":" + sortBy + ":" + sortOrder.toLowerCase();
+        return productCacheService.getListing(cacheKey,
+                () -> loadAllProducts(pageNumber, pageSize, sortBy, sortOrder));
+    }
+
+    private ProductResponse loadAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        Page<ProductListView> pageProducts;
+        if (catalogSortIndex.supports(sortBy)) {
+            pageProducts = toPage(catalogSortIndex.page(sortBy, sortOrder.equalsIgnoreCase("asc"), pageNumber, pageSize),
+                    pageNumber, pageSize);
+        } else {
+            Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                    ? Sort.by(sortBy).ascending()
+                    : Sort.by(sortBy).descending();
 
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findAll(pageDetails);
+            Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+            pageProducts = productRepository.findListViews(pageDetails);
+        }
 
-        List<Product> products = pageProducts.getContent();
+        List<ProductListView> products = pageProducts.getContent();
 
         List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
+                .map(productMapper::toDto)
                 .toList();
 
         ProductResponse productResponse = new ProductResponse();
@@ -110,21 +157,27 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Category", "categoryId", categoryId));
 
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+        Page<ProductListView> pageProducts;
+        if (catalogSortIndex.supports(sortBy)) {
+            pageProducts = toPage(catalogSortIndex.pageInCategories(sortBy, sortOrder.equalsIgnoreCase("asc"),
+                    categoryTreeIndex.subtree(categoryId), pageNumber, pageSize), pageNumber, pageSize);
+        } else {
+            Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                    ? Sort.by(sortBy).ascending()
+                    : Sort.by(sortBy).descending();
 
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByCategoryOrderByPriceAsc(category, pageDetails);
+            Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+            pageProducts = productRepository.findListViewsInSubtree(categoryId, pageDetails);
+        }
 
-        List<Product> products = pageProducts.getContent();
+        List<ProductListView> products = pageProducts.getContent();
 
         if(products.isEmpty()){
             throw new APIException(category.getCategoryName() + " category does not have any products");
         }
 
         List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
+                .map(productMapper::toDto)
                 .toList();
 
         ProductResponse productResponse = new ProductResponse();
@@ -139,16 +192,35 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
+        if (!sortBy.equalsIgnoreCase("relevance")) {
+            requireIndexedSort(sortBy);
+        }
+        List<Long> matches = productSearchIndex.search(keyword);
+        String suggestion = null;
+        if (matches.isEmpty()) {
+            suggestion = productSearchIndex.suggest(keyword);
+            if (suggestion != null) {
+                matches = productSearchIndex.search(suggestion);
+            }
+        }
+        if (matches.isEmpty()) {
+            throw new APIException("Products not found with keyword: " + keyword);
+        }
 
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByProductNameLikeIgnoreCase('%' + keyword + '%', pageDetails);
+        Page<ProductListView> pageProducts;
+        if (sortBy.equalsIgnoreCase("relevance")) {
+            int from = Math.min(pageNumber * pageSize, matches.size());
+            int to = Math.min(from + pageSize, matches.size());
+            pageProducts = new PageImpl<>(findAllInOrder(matches.subList(from, to)),
+                    PageRequest.of(pageNumber, pageSize), matches.size());
+        } else {
+            pageProducts = toPage(catalogSortIndex.pageOf(sortBy, sortOrder.equalsIgnoreCase("asc"), matches,
+                    pageNumber, pageSize), pageNumber, pageSize);
+        }
 
-        List<Product> products = pageProducts.getContent();
+        List<ProductListView> products = pageProducts.getContent();
         List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
+                .map(productMapper::toDto)
                 .toList();
 
         if(products.isEmpty()){
@@ -162,15 +234,160 @@ public class ProductServiceImpl implements ProductService {
         productResponse.setTotalElements(pageProducts.getTotalElements());
         productResponse.setTotalPages(pageProducts.getTotalPages());
         productResponse.setLastPage(pageProducts.isLast());
+        productResponse.setSuggestion(suggestion);
+        return productResponse;
+    }
+
+    // Filtered listings are paged by the in-memory sort index; sorting them in the database would
+    // need every matching id in one IN list.
+    private void requireIndexedSort(String sortBy) {
+        if (!catalogSortIndex.supports(sortBy)) {
+            throw new APIException("Sorting is not supported for sortBy: " + sortBy);
+        }
+    }
+
+    private Page<ProductListView> toPage(CatalogSortIndex.SortedPage sorted, Integer pageNumber, Integer pageSize) {
+        List<ProductListView> content = sorted.productIds().isEmpty() ? List.of() : findAllInOrder(sorted.productIds());
+        return new PageImpl<>(content, PageRequest.of(pageNumber, pageSize), sorted.totalElements());
+    }
+
+    private List<ProductListView> findAllInOrder(List<Long> productIds) {
+        Map<Long, ProductListView> byId = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += maxPageSize) {
+            productRepository.findListViews(productIds.subList(from, Math.min(from + maxPageSize, productIds.size())))
+                    .forEach(view -> byId.put(view.productId(), view));
+        }
+        return productIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public ProductResponse scrollProducts(Long categoryId, String keyword, String after, Integer pageSize,
+                                          String sortBy, String sortOrder, boolean includeTotal) {
+        if (!ProductCursor.SORTABLE_PROPERTIES.contains(sortBy)) {
+            throw new APIException("Cursor paging is not supported for sortBy: " + sortBy);
+        }
+        if (pageSize == null || pageSize < 1) {
+            throw new APIException("pageSize must be positive");
+        }
+        pageSize = Math.min(pageSize, maxPageSize);
+        boolean ascending = sortOrder.equalsIgnoreCase("asc");
+
+        Specification<Product> spec = Specification.unrestricted();
+        if (categoryId != null) {
+            if (!categoryRepository.existsById(categoryId)) {
+                throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+            }
+            // A category created moments ago may not be in the tree index yet.
+            Set<Long> subtree = categoryTreeIndex.subtree(categoryId);
+            Set<Long> categoryIds = subtree.isEmpty() ? Set.of(categoryId) : subtree;
+            Specification<Product> inCategory = (root, query, cb) ->
+                    root.get("category").get("categoryId").in(categoryIds);
+            spec = spec.and(inCategory);
+        }
+        String suggestion = null;
+        if (keyword != null) {
+            List<Long> found = productSearchIndex.search(keyword);
+            if (found.isEmpty()) {
+                suggestion = productSearchIndex.suggest(keyword);
+                if (suggestion != null) {
+                    found = productSearchIndex.search(suggestion);
+                }
+            }
+            // The matches are bound as one array parameter; an IN list would need a bind parameter per id.
+            Long[] matches = found.toArray(Long[]::new);
+            Specification<Product> matchesKeyword = (root, query, cb) -> matches.length == 0
+                    ? cb.disjunction()
+                    : ((HibernateCriteriaBuilder) cb).arrayContains(matches, root.get("productId"));
+            spec = spec.and(matchesKeyword);
+        }
+
+        ProductCursor cursor = (after == null || after.isBlank()) ? null : ProductCursor.decode(after, sortBy, sortOrder);
+        // One extra row tells whether another page follows.
+        List<ProductListView> rows = productRepository.scrollListViews(spec, sortBy, ascending,
+                cursor == null ? null : cursor.sortValue(), cursor == null ? null : cursor.productId(), pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<ProductListView> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setContent(page.stream().map(productMapper::toDto).toList());
+        productResponse.setPageSize(pageSize);
+        productResponse.setLastPage(!hasNext);
+        productResponse.setSuggestion(suggestion);
+        if (hasNext) {
+            ProductListView last = page.get(page.size() - 1);
+            productResponse.setNextCursor(new ProductCursor(sortBy, sortOrder, last.productId(),
+                    sortValueOf(last, sortBy)).encode());
+        }
+        if (includeTotal) {
+            long total = productRepository.count(spec);
+            productResponse.setTotalElements(total);
+            productResponse.setTotalPages((int) Math.ceil((double) total / pageSize));
+        }
         return productResponse;
     }
 
+    private Object sortValueOf(ProductListView view, String sortBy) {
+        return switch (sortBy) {
+            case "productName" -> view.productName();
+            case "price" -> view.price();
+            case "discount" -> view.discount();
+            case "specialPrice" -> view.specialPrice();
+            default -> view.productId();
+        };
+    }
+
+    @Override
+    public List<SuggestionDTO> suggestProducts(String query, Integer limit) {
+        int k = (limit == null || limit <= 0) ? 10 : Math.min(limit, 50);
+        return productSuggestService.suggest(query, k);
+    }
+
+    @Override
+    public FacetedProductResponse browseProducts(List<Long> categoryIds, List<String> priceRanges, List<String> discountRanges,
+                                                 Boolean inStock, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        requireIndexedSort(sortBy);
+        Map<String, Collection<String>> filters = new HashMap<>();
+        if (categoryIds != null) {
+            filters.put(ProductFacetIndex.CATEGORY, categoryIds.stream().map(String::valueOf).toList());
+        }
+        filters.put(ProductFacetIndex.PRICE, priceRanges);
+        filters.put(ProductFacetIndex.DISCOUNT, discountRanges);
+        if (inStock != null) {
+            filters.put(ProductFacetIndex.AVAILABILITY,
+                    List.of(inStock ? ProductFacetIndex.IN_STOCK : ProductFacetIndex.OUT_OF_STOCK));
+        }
+        ProductFacetIndex.FacetResult result = productFacetIndex.query(filters);
+
+        Page<ProductListView> pageProducts = toPage(catalogSortIndex.pageOf(sortBy, sortOrder.equalsIgnoreCase("asc"),
+                result.productIds(), pageNumber, pageSize), pageNumber, pageSize);
+
+        List<ProductDTO> productDTOS = pageProducts.getContent().stream()
+                .map(productMapper::toDto)
+                .toList();
+
+        FacetedProductResponse response = new FacetedProductResponse();
+        response.setContent(productDTOS);
+        response.setPageNumber(pageProducts.getNumber());
+        response.setPageSize(pageProducts.getSize());
+        response.setTotalElements(pageProducts.getTotalElements());
+        response.setTotalPages(pageProducts.getTotalPages());
+        response.setLastPage(pageProducts.isLast());
+        response.setFacets(result.counts());
+        return response;
+    }
+
     @Override
     public ProductDTO updateProduct(Long productId, ProductDTO productDTO) {
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        Product product = modelMapper.map(productDTO, Product.class);
+        Product product = productMapper.toEntity(productDTO);
+        boolean repriced = productFromDb.getPrice() != product.getPrice()
+                || productFromDb.getDiscount() != product.getDiscount()
+                || productFromDb.getSpecialPrice() != product.getSpecialPrice();
 
         productFromDb.setProductName(product.getProductName());
         productFromDb.setDescription(product.getDescription());
@@ -178,26 +395,45 @@ public class ProductServiceImpl implements ProductService {
         productFromDb.setDiscount(product.getDiscount());
         productFromDb.setPrice(product.getPrice());
         productFromDb.setSpecialPrice(product.getSpecialPrice());
+        if (repriced) {
+            productFromDb.setPriceVersion(productFromDb.getPriceVersion() + 1);
+        }
 
         Product savedProduct = productRepository.save(productFromDb);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        return productMapper.toDto(savedProduct);
+    }
 
-        List<Cart> carts = cartRepository.findCartsByProductId(productId);
-
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream()
-                    .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class)).collect(Collectors.toList());
-
-            cartDTO.setProducts(products);
-
-            return cartDTO;
-
-        }).collect(Collectors.toList());
-
-        cartDTOs.forEach(cart -> cartService.updateProductInCarts(cart.getCartId(), productId));
+    @Override
+    @Transactional
+    public BulkPriceUpdateResponse bulkUpdatePrices(BulkPriceUpdateRequest request) {
+        if (request.getPriceChangePercent() == null && request.getDiscount() == null) {
+            throw new APIException("Either priceChangePercent or discount is required");
+        }
+        List<Long> productIds;
+        if (request.getProductIds() != null && !request.getProductIds().isEmpty()) {
+            productIds = request.getProductIds().stream().distinct().toList();
+        } else if (request.getCategoryId() != null) {
+            if (!categoryRepository.existsById(request.getCategoryId())) {
+                throw new ResourceNotFoundException("Category", "categoryId", request.getCategoryId());
+            }
+            productIds = productRepository.findIdsByCategory(request.getCategoryId());
+        } else if (request.isAllProducts()) {
+            productIds = productRepository.findAllIds();
+        } else {
+            throw new APIException("Select products by productIds, categoryId or allProducts");
+        }
 
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        double priceFactor = request.getPriceChangePercent() == null ? 1.0 : 1 + request.getPriceChangePercent() / 100;
+        int products = 0;
+        for (int from = 0; from < productIds.size(); from += bulkChunkSize) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + bulkChunkSize, productIds.size()));
+            products += request.getDiscount() == null
+                    ? productRepository.reprice(chunk, priceFactor)
+                    : productRepository.reprice(chunk, priceFactor, request.getDiscount());
+            ProductChangedEvent.inChunks(chunk).forEach(eventPublisher::publishEvent);
+        }
+        return new BulkPriceUpdateResponse(products);
     }
 
     @Override
@@ -210,27 +446,50 @@ public class ProductServiceImpl implements ProductService {
         carts.forEach(cart -> cartService.deleteProductFromCart(cart.getCartId(), productId));
 
         productRepository.delete(product);
-        return modelMapper.map(product, ProductDTO.class);
+        fileService.releaseImage(product.getImage());
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        return productMapper.toDto(product);
     }
 
     @Override
     public ProductDTO getProductById(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-        return modelMapper.map(product, ProductDTO.class);
+        return productCacheService.getProduct(productId, () -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+            return productMapper.toDto(product);
+        });
     }
 
 
     @Override
+    @Transactional(rollbackOn = IOException.class)
     public ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException {
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        String fileName = fileService.uploadImage(path, image);
+        return replaceImage(productFromDb, fileService.uploadImage(path, image));
+    }
+
+    @Override
+    @Transactional(rollbackOn = IOException.class)
+    public ProductDTO updateProductImage(Long productId, InputStream image) throws IOException {
+        Product productFromDb = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+
+        return replaceImage(productFromDb, fileService.storeImage(path, image));
+    }
+
+    private ProductDTO replaceImage(Product productFromDb, String fileName) {
+        Long productId = productFromDb.getProductId();
+        String previousImage = productFromDb.getImage();
         productFromDb.setImage(fileName);
+        productFromDb.setImageVariants(0);
 
         Product updatedProduct = productRepository.save(productFromDb);
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        fileService.releaseImage(previousImage);
+        eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+        eventPublisher.publishEvent(new ProductImageChangedEvent(productId, fileName));
+        return productMapper.toDto(updatedProduct);
     }
 
 
@@ -0,0 +1,184 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.payload.SuggestionDTO;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.OrderItemRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CategoryProductCount;
+import com.onlinepharmacy.backend.repositories.projection.ProductNameView;
+import com.onlinepharmacy.backend.repositories.projection.ProductSales;
+import com.onlinepharmacy.backend.util.RadixTrie;
+import com.onlinepharmacy.backend.util.TextAnalyzer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductSuggestService {
+
+    private static final String PRODUCT = "product";
+    private static final String CATEGORY = "category";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private final RadixTrie<SuggestionDTO> trie = new RadixTrie<>();
+    private final Map<Long, Indexed> products = new HashMap<>();
+    private final Map<Long, Indexed> categories = new HashMap<>();
+    private final Map<Long, Long> productCategories = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSuggestService(ProductRepository productRepository,
+                                 CategoryRepository categoryRepository,
+                                 OrderItemRepository orderItemRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Long> unitsSold = orderItemRepository.sumUnitsSoldByProduct().stream()
+                .collect(Collectors.toMap(ProductSales::productId, ProductSales::unitsSold));
+        List<ProductNameView> names = productRepository.findAllNames();
+        List<CategoryProductCount> counts = categoryRepository.countProductsByCategory();
+
+        lock.writeLock().lock();
+        try {
+            new ArrayList<>(products.keySet()).forEach(id -> remove(products, id));
+            new ArrayList<>(categories.keySet()).forEach(id -> remove(categories, id));
+            productCategories.clear();
+            for (ProductNameView p : names) {
+                putProduct(p, unitsSold.getOrDefault(p.productId(), 0L));
+            }
+            for (CategoryProductCount c : counts) {
+                put(categories, CATEGORY, c.categoryId(), c.categoryName(), c.productCount());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A product change can move units between categories, so the old and new category of every
+    // changed product gets its count refreshed along with the product entries.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<Long, Long> unitsSold = orderItemRepository.sumUnitsSoldByProduct(event.productIds()).stream()
+                .collect(Collectors.toMap(ProductSales::productId, ProductSales::unitsSold));
+        List<ProductNameView> names = productRepository.findNames(event.productIds());
+
+        Set<Long> categoryIds = new HashSet<>();
+        names.stream().map(ProductNameView::categoryId).filter(Objects::nonNull).forEach(categoryIds::add);
+        lock.readLock().lock();
+        try {
+            event.productIds().stream()
+                    .map(productCategories::get)
+                    .filter(Objects::nonNull)
+                    .forEach(categoryIds::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<CategoryProductCount> counts = categoryIds.isEmpty()
+                ? List.of()
+                : categoryRepository.countProductsByCategoryIdIn(categoryIds);
+
+        lock.writeLock().lock();
+        try {
+            event.productIds().forEach(id -> {
+                remove(products, id);
+                productCategories.remove(id);
+            });
+            for (ProductNameView p : names) {
+                putProduct(p, unitsSold.getOrDefault(p.productId(), 0L));
+            }
+            refreshCategories(categoryIds, counts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Set<Long> categoryIds = Set.of(event.categoryId());
+        List<CategoryProductCount> counts = categoryRepository.countProductsByCategoryIdIn(categoryIds);
+
+        lock.writeLock().lock();
+        try {
+            refreshCategories(categoryIds, counts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.topK(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putProduct(ProductNameView product, long unitsSold) {
+        put(products, PRODUCT, product.productId(), product.productName(), unitsSold);
+        if (product.categoryId() != null) {
+            productCategories.put(product.productId(), product.categoryId());
+        }
+    }
+
+    // Categories missing from the counts no longer exist and are dropped.
+    private void refreshCategories(Set<Long> categoryIds, List<CategoryProductCount> counts) {
+        categoryIds.forEach(id -> remove(categories, id));
+        for (CategoryProductCount c : counts) {
+            put(categories, CATEGORY, c.categoryId(), c.categoryName(), c.productCount());
+        }
+    }
+
+    // Every word of a name is a starting point, so "650" finds "Dolo 650 Tablet".
+    private void put(Map<Long, Indexed> entries, String type, Long id, String name, long weight) {
+        SuggestionDTO suggestion = new SuggestionDTO(type, id, name);
+        List<String> keys = keysFor(name);
+        keys.forEach(key -> trie.insert(key, suggestion, weight));
+        entries.put(id, new Indexed(suggestion, keys));
+    }
+
+    private void remove(Map<Long, Indexed> entries, Long id) {
+        Indexed indexed = entries.remove(id);
+        if (indexed != null) {
+            indexed.keys().forEach(key -> trie.remove(key, indexed.suggestion()));
+        }
+    }
+
+    private static List<String> keysFor(String name) {
+        List<String> words = TextAnalyzer.tokenize(name);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            keys.add(String.join(" ", words.subList(i, words.size())));
+        }
+        return keys;
+    }
+
+    private static String normalize(String query) {
+        String normalized = String.join(" ", TextAnalyzer.tokenize(query));
+        return query.endsWith(" ") && !normalized.isEmpty() ? normalized + " " : normalized;
+    }
+
+    private record Indexed(SuggestionDTO suggestion, List<String> keys) {
+    }
+}
@@ -14,6 +14,10 @@ public class AuthUtil {
     @Autowired
     UserRepository userRepository;
 
+    public String loggedInUserName(){
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
     public String loggedInEmail(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User user = userRepository.findByUserName(authentication.getName())
@@ -0,0 +1,132 @@
+package com.onlinepharmacy.backend.util;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// LRU cache of read-only direct buffers bounded by total bytes rather than entry count. The cached
+// bytes live outside the Java heap, so they are neither copied nor scanned by the collector, but each
+// buffer still has a small heap object whose collection is what frees its native memory; evicted
+// buffers linger until a GC runs, and allocations past -XX:MaxDirectMemorySize force one or fail.
+// The byte bound is therefore capped to a share of that limit.
+public class DirectBufferCache<K> {
+
+    private static final double DIRECT_MEMORY_SHARE = 0.5;
+
+    private final String name;
+    private final long maximumBytes;
+    private final int maximumEntryBytes;
+    private final LinkedHashMap<K, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DirectBufferCache(String name, long maximumBytes, int maximumEntryBytes) {
+        this(name, maximumBytes, maximumEntryBytes, maxDirectMemory());
+    }
+
+    DirectBufferCache(String name, long maximumBytes, int maximumEntryBytes, long maxDirectMemory) {
+        if (maximumBytes < 1 || maximumEntryBytes < 1) {
+            throw new IllegalArgumentException("cache bounds must be positive");
+        }
+        this.name = name;
+        this.maximumBytes = Math.max(1, Math.min(maximumBytes, (long) (maxDirectMemory * DIRECT_MEMORY_SHARE)));
+        this.maximumEntryBytes = (int) Math.min(maximumEntryBytes, this.maximumBytes);
+    }
+
+    // Without the flag the JDK allows as much direct memory as the maximum heap size.
+    static long maxDirectMemory() {
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            long configured = Long.parseLong(diagnostics.getVMOption("MaxDirectMemorySize").getValue());
+            if (configured > 0) {
+                return configured;
+            }
+        } catch (RuntimeException e) {
+            // not a HotSpot VM, fall back to the default
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    public boolean accepts(long size) {
+        return size <= maximumEntryBytes;
+    }
+
+    // Returns an independent view so callers can move position and limit freely.
+    public synchronized ByteBuffer get(K key) {
+        ByteBuffer buffer = entries.get(key);
+        if (buffer == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return buffer.duplicate();
+    }
+
+    public static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocateDirect(size);
+    }
+
+    // The cache takes ownership of the buffer, which should come from allocate() and be flipped.
+    public ByteBuffer put(K key, ByteBuffer buffer) {
+        ByteBuffer readOnly = buffer.asReadOnlyBuffer();
+        if (!accepts(readOnly.capacity())) {
+            return readOnly;
+        }
+        synchronized (this) {
+            ByteBuffer previous = entries.put(key, readOnly);
+            if (previous != null) {
+                bytes -= previous.capacity();
+            }
+            bytes += readOnly.capacity();
+            Iterator<Map.Entry<K, ByteBuffer>> it = entries.entrySet().iterator();
+            while (bytes > maximumBytes && it.hasNext()) {
+                Map.Entry<K, ByteBuffer> eldest = it.next();
+                bytes -= eldest.getValue().capacity();
+                it.remove();
+                evictions.increment();
+            }
+        }
+        return readOnly.duplicate();
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
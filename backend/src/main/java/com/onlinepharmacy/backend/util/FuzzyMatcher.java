@@ -0,0 +1,170 @@
+package com.onlinepharmacy.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Dictionary of words that can be looked up by spelling or sound: candidates come from a
+// trigram index and a phonetic-key index and are then verified with a bounded edit distance.
+public class FuzzyMatcher {
+
+    private final Map<String, Integer> words = new HashMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<String, Set<String>> phonetic = new HashMap<>();
+
+    public void add(String word) {
+        if (words.merge(word, 1, Integer::sum) > 1) {
+            return;
+        }
+        for (String gram : trigramsOf(word)) {
+            trigrams.computeIfAbsent(gram, k -> new HashSet<>()).add(word);
+        }
+        phonetic.computeIfAbsent(phoneticKey(word), k -> new HashSet<>()).add(word);
+    }
+
+    public void remove(String word) {
+        Integer count = words.get(word);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            words.put(word, count - 1);
+            return;
+        }
+        words.remove(word);
+        for (String gram : trigramsOf(word)) {
+            removeFrom(trigrams, gram, word);
+        }
+        removeFrom(phonetic, phoneticKey(word), word);
+    }
+
+    public void clear() {
+        words.clear();
+        trigrams.clear();
+        phonetic.clear();
+    }
+
+    public boolean contains(String word) {
+        return words.containsKey(word);
+    }
+
+    public List<String> suggest(String word, int limit) {
+        int maxDistance = word.length() <= 4 ? 1 : word.length() <= 8 ? 2 : 3;
+
+        Map<String, Integer> overlap = new HashMap<>();
+        Set<String> grams = trigramsOf(word);
+        for (String gram : grams) {
+            for (String candidate : trigrams.getOrDefault(gram, Set.of())) {
+                overlap.merge(candidate, 1, Integer::sum);
+            }
+        }
+        Set<String> soundsAlike = phonetic.getOrDefault(phoneticKey(word), Set.of());
+        int minOverlap = Math.max(1, grams.size() - 3 * maxDistance);
+
+        List<Candidate> matches = new ArrayList<>();
+        Set<String> considered = new HashSet<>(soundsAlike);
+        overlap.forEach((candidate, shared) -> {
+            if (shared >= minOverlap) considered.add(candidate);
+        });
+        for (String candidate : considered) {
+            boolean phoneticMatch = soundsAlike.contains(candidate);
+            int bound = phoneticMatch ? maxDistance + 1 : maxDistance;
+            int distance = boundedDistance(word, candidate, bound);
+            if (distance <= bound) {
+                matches.add(new Candidate(candidate, distance, phoneticMatch,
+                        overlap.getOrDefault(candidate, 0), words.get(candidate)));
+            }
+        }
+        matches.sort(Comparator.comparingInt(Candidate::distance)
+                .thenComparing(Candidate::phoneticMatch, Comparator.reverseOrder())
+                .thenComparing(Candidate::overlap, Comparator.reverseOrder())
+                .thenComparing(Candidate::frequency, Comparator.reverseOrder())
+                .thenComparing(Candidate::word));
+        return matches.stream().limit(limit).map(Candidate::word).toList();
+    }
+
+    // Damerau (optimal string alignment) distance that gives up as soon as every cell in a row
+    // exceeds the bound; returns bound + 1 in that case.
+    static int boundedDistance(String a, String b, int bound) {
+        if (Math.abs(a.length() - b.length()) > bound) {
+            return bound + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > bound) {
+                return bound + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], bound + 1);
+    }
+
+    static String phoneticKey(String word) {
+        String s = word.toLowerCase()
+                .replace("ph", "f")
+                .replace("ck", "k")
+                .replace("qu", "kw")
+                .replace("x", "ks")
+                .replaceAll("c(?=[eiy])", "s")
+                .replace('c', 'k')
+                .replace('q', 'k')
+                .replace('z', 's')
+                .replace('y', 'i')
+                .replaceAll("([^aeiou])h", "$1");
+        StringBuilder key = new StringBuilder();
+        char last = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == last) continue;
+            last = c;
+            if (i > 0 && "aeiou".indexOf(c) >= 0) continue;
+            key.append(c);
+        }
+        return key.toString();
+    }
+
+    private static Set<String> trigramsOf(String word) {
+        String padded = "$$" + word + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static void removeFrom(Map<String, Set<String>> index, String key, String word) {
+        Set<String> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(word);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private record Candidate(String word, int distance, boolean phoneticMatch, int overlap, int frequency) {
+    }
+}
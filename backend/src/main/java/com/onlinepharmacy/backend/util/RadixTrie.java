@@ -0,0 +1,163 @@
+package com.onlinepharmacy.backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Path-compressed trie whose nodes carry the best weight found anywhere below them, so a top-k
+// prefix lookup can expand the most promising branches first and stop as soon as k values are found.
+public class RadixTrie<T> {
+
+    private final Node<T> root = new Node<>("");
+    private int size;
+
+    public void insert(String key, T value, long weight) {
+        if (insert(root, key, value, weight)) {
+            size++;
+        }
+    }
+
+    public void remove(String key, T value) {
+        if (remove(root, key, value)) {
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<T> topK(String prefix, int k) {
+        Node<T> start = root;
+        String remaining = prefix;
+        while (!remaining.isEmpty()) {
+            Node<T> child = start.children.get(remaining.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, remaining);
+            if (common == remaining.length()) {
+                start = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            remaining = remaining.substring(common);
+            start = child;
+        }
+
+        Set<T> results = new LinkedHashSet<>();
+        PriorityQueue<Candidate<T>> queue = new PriorityQueue<>(
+                Comparator.comparingLong((Candidate<T> c) -> c.weight).reversed());
+        queue.add(new Candidate<>(start, null, start.maxWeight));
+        while (!queue.isEmpty() && results.size() < k) {
+            Candidate<T> next = queue.poll();
+            if (next.value != null) {
+                results.add(next.value);
+                continue;
+            }
+            next.node.values.forEach((value, weight) -> queue.add(new Candidate<>(null, value, weight)));
+            for (Node<T> child : next.node.children.values()) {
+                queue.add(new Candidate<>(child, null, child.maxWeight));
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    private boolean insert(Node<T> node, String key, T value, long weight) {
+        node.maxWeight = Math.max(node.maxWeight, weight);
+        if (key.isEmpty()) {
+            return node.values.put(value, weight) == null;
+        }
+        Node<T> child = node.children.get(key.charAt(0));
+        if (child == null) {
+            child = new Node<>(key);
+            node.children.put(key.charAt(0), child);
+            return insert(child, "", value, weight);
+        }
+        int common = commonPrefix(child.label, key);
+        if (common < child.label.length()) {
+            Node<T> split = new Node<>(child.label.substring(0, common));
+            child.label = child.label.substring(common);
+            split.children.put(child.label.charAt(0), child);
+            split.maxWeight = child.maxWeight;
+            node.children.put(split.label.charAt(0), split);
+            child = split;
+        }
+        return insert(child, key.substring(common), value, weight);
+    }
+
+    private boolean remove(Node<T> node, String key, T value) {
+        boolean removed;
+        if (key.isEmpty()) {
+            removed = node.values.remove(value) != null;
+        } else {
+            Node<T> child = node.children.get(key.charAt(0));
+            if (child == null || !key.startsWith(child.label)) {
+                return false;
+            }
+            removed = remove(child, key.substring(child.label.length()), value);
+            if (removed) {
+                compact(node, child);
+            }
+        }
+        if (removed) {
+            node.recomputeMaxWeight();
+        }
+        return removed;
+    }
+
+    private void compact(Node<T> parent, Node<T> child) {
+        if (!child.values.isEmpty()) {
+            return;
+        }
+        if (child.children.isEmpty()) {
+            parent.children.remove(child.label.charAt(0));
+        } else if (child.children.size() == 1) {
+            Node<T> grandChild = child.children.values().iterator().next();
+            grandChild.label = child.label + grandChild.label;
+            parent.children.put(grandChild.label.charAt(0), grandChild);
+        }
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node<T> {
+        private String label;
+        private final Map<Character, Node<T>> children = new TreeMap<>();
+        private final Map<T, Long> values = new HashMap<>();
+        private long maxWeight = Long.MIN_VALUE;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private void recomputeMaxWeight() {
+            long max = Long.MIN_VALUE;
+            for (long weight : values.values()) {
+                max = Math.max(max, weight);
+            }
+            for (Node<T> child : children.values()) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private record Candidate<T>(Node<T> node, T value, long weight) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.onlinepharmacy.backend.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+            "is", "it", "of", "on", "or", "the", "to", "with", "without");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            if (!STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    // Light suffix stripping: enough to fold plurals and common verb forms ("tablets", "coated",
+    // "relieving") without the over-stemming a full Porter stemmer does to drug names.
+    public static String stem(String term) {
+        if (term.length() <= 3 || Character.isDigit(term.charAt(term.length() - 1))) {
+            return term;
+        }
+        String stem = stripPlural(term);
+        stem = stripVerbSuffix(stem);
+        if (stem.length() > 4 && stem.endsWith("e")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String stripPlural(String term) {
+        int length = term.length();
+        if (term.endsWith("ies") && length > 4) {
+            return term.substring(0, length - 3) + "y";
+        }
+        if (term.endsWith("sses")) {
+            return term.substring(0, length - 2);
+        }
+        if (term.endsWith("xes") || term.endsWith("ches") || term.endsWith("shes") || term.endsWith("zes")) {
+            return term.substring(0, length - 2);
+        }
+        if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            return term.substring(0, length - 1);
+        }
+        return term;
+    }
+
+    private static String stripVerbSuffix(String term) {
+        int length = term.length();
+        if (term.endsWith("ing") && length > 5) {
+            return dropDoubleConsonant(term.substring(0, length - 3));
+        }
+        if (term.endsWith("ed") && length > 4) {
+            return dropDoubleConsonant(term.substring(0, length - 2));
+        }
+        if (term.endsWith("ly") && length > 4) {
+            return term.substring(0, length - 2);
+        }
+        return term;
+    }
+
+    private static String dropDoubleConsonant(String stem) {
+        int length = stem.length();
+        if (length > 2 && stem.charAt(length - 1) == stem.charAt(length - 2)
+                && "aeiouls".indexOf(stem.charAt(length - 1)) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,288 @@
+package com.onlinepharmacy.backend.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+// Bounded cache with a W-TinyLFU policy: new entries land in a small LRU window and are only
+// admitted to the main SLRU region when the frequency sketch says they are hotter than the victim.
+// Values pass through the copier on the way in and out, so callers never share a mutable instance.
+public class TinyLfuCache<K, V> {
+
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final UnaryOperator<V> copier;
+    private final LongSupplier ticker;
+    // Loads in flight, keyed to a token that an invalidation of the key discards.
+    private final Map<K, Object> pendingLoads = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TinyLfuCache(String name, int maximumSize, long ttlSeconds) {
+        this(name, maximumSize, ttlSeconds, UnaryOperator.identity());
+    }
+
+    public TinyLfuCache(String name, int maximumSize, long ttlSeconds, UnaryOperator<V> copier) {
+        this(name, maximumSize, ttlSeconds, copier, System::nanoTime);
+    }
+
+    TinyLfuCache(String name, int maximumSize, long ttlSeconds, UnaryOperator<V> copier, LongSupplier ticker) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttlSeconds <= 0 ? Long.MAX_VALUE : ttlSeconds * 1_000_000_000L;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = Math.max(1, maximumSize - windowCapacity);
+        this.protectedCapacity = Math.max(1, (int) (mainCapacity * 0.8));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.copier = copier;
+        this.ticker = ticker;
+    }
+
+    public V get(K key) {
+        synchronized (this) {
+            sketch.increment(key.hashCode());
+            Entry<V> entry = lookup(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return copier.apply(entry.value);
+        }
+    }
+
+    // The loader runs outside the lock. If the key is invalidated while it runs, the loaded value may
+    // predate the change, so it is returned to this caller but not cached.
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        Object token = new Object();
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            pendingLoads.put(key, token);
+        }
+        V loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                pendingLoads.remove(key, token);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (pendingLoads.remove(key, token) && loaded != null) {
+                insert(key, copier.apply(loaded));
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void put(K key, V value) {
+        insert(key, copier.apply(value));
+    }
+
+    public synchronized void invalidate(K key) {
+        pendingLoads.remove(key);
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        pendingLoads.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void insert(K key, V value) {
+        long expiresAt = ttlNanos == Long.MAX_VALUE ? Long.MAX_VALUE : ticker.getAsLong() + ttlNanos;
+        Entry<V> existing = findEntry(key);
+        if (existing != null) {
+            existing.value = value;
+            existing.expiresAt = expiresAt;
+            return;
+        }
+        window.put(key, new Entry<>(value, expiresAt));
+        if (window.size() > windowCapacity) {
+            Map.Entry<K, Entry<V>> candidate = pollEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private Entry<V> lookup(K key) {
+        Entry<V> entry = window.get(key);
+        if (entry != null) {
+            return expireIfNeeded(window, key, entry);
+        }
+        entry = protectedSegment.get(key);
+        if (entry != null) {
+            return expireIfNeeded(protectedSegment, key, entry);
+        }
+        entry = probation.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            return null;
+        }
+        protectedSegment.put(key, entry);
+        if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<K, Entry<V>> demoted = pollEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+        return entry;
+    }
+
+    private Entry<V> findEntry(K key) {
+        Entry<V> entry = window.get(key);
+        if (entry == null) entry = probation.get(key);
+        if (entry == null) entry = protectedSegment.get(key);
+        return entry;
+    }
+
+    private Entry<V> expireIfNeeded(Map<K, Entry<V>> segment, K key, Entry<V> entry) {
+        if (isExpired(entry)) {
+            segment.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return entry.expiresAt != Long.MAX_VALUE && ticker.getAsLong() - entry.expiresAt > 0;
+    }
+
+    private void admit(K candidateKey, Entry<V> candidate) {
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidateKey, candidate);
+            return;
+        }
+        LinkedHashMap<K, Entry<V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        K victimKey = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(candidateKey.hashCode()) > sketch.frequency(victimKey.hashCode())) {
+            victimSegment.remove(victimKey);
+            probation.put(candidateKey, candidate);
+        }
+        evictions.increment();
+    }
+
+    private Map.Entry<K, Entry<V>> pollEldest(LinkedHashMap<K, Entry<V>> segment) {
+        Iterator<Map.Entry<K, Entry<V>>> it = segment.entrySet().iterator();
+        Map.Entry<K, Entry<V>> eldest = it.next();
+        Map.Entry<K, Entry<V>> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        it.remove();
+        return copy;
+    }
+
+    private static final class Entry<V> {
+        private V value;
+        private long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Count-min sketch with 4-bit saturating counters that are halved periodically so that
+    // popularity decays over time.
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xb1a2c3d5, 0x4fd2b5e1, 0x2545f491};
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1;
+            this.table = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * Math.max(16, maximumSize);
+        }
+
+        private void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                if (table[i][index] < MAX_COUNT) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private int frequency(int hash) {
+            int min = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                min = Math.min(min, table[i][indexOf(hash, i)]);
+            }
+            return min;
+        }
+
+        private int indexOf(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            h ^= h >>> 16;
+            return h & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : table) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = (byte) (row[i] >>> 1);
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
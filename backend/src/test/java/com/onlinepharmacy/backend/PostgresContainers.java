@@ -0,0 +1,14 @@
+package com.onlinepharmacy.backend;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+// Shared PostgreSQL for tests that depend on its locking, native SQL or query plans. Import it with
+// @ImportTestcontainers and mark the test @Testcontainers(disabledWithoutDocker = true).
+public interface PostgresContainers {
+
+    @Container
+    @ServiceConnection
+    PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:16-alpine");
+}
@@ -0,0 +1,72 @@
+package com.onlinepharmacy.backend.config;
+
+import com.onlinepharmacy.backend.service.HotPageSnapshotService;
+import com.onlinepharmacy.backend.service.HotPageSnapshotService.PageSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotPageInterceptorTest {
+
+    private static final byte[] JSON = "{\"content\":[]}".getBytes();
+    private static final byte[] GZIP = {0x1f, (byte) 0x8b, 1, 2};
+
+    private final HotPageSnapshotService snapshotService = mock(HotPageSnapshotService.class);
+    private final HotPageInterceptor interceptor = new HotPageInterceptor(snapshotService);
+
+    @BeforeEach
+    void setUp() {
+        when(snapshotService.isHotPage(0)).thenReturn(true);
+        when(snapshotService.allProductsPage(0)).thenReturn(new PageSnapshot("\"c1-7\"", JSON, GZIP));
+    }
+
+    @Test
+    void eachContentCodingHasItsOwnStrongEtag() throws IOException {
+        MockHttpServletResponse identity = handle(request(null, null));
+        MockHttpServletResponse gzip = handle(request("gzip, deflate", null));
+
+        assertThat(identity.getHeader(HttpHeaders.ETAG)).isEqualTo("\"c1-7\"");
+        assertThat(identity.getContentAsByteArray()).isEqualTo(JSON);
+        assertThat(gzip.getHeader(HttpHeaders.ETAG)).isEqualTo("\"c1-7-gzip\"");
+        assertThat(gzip.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzip.getContentAsByteArray()).isEqualTo(GZIP);
+    }
+
+    @Test
+    void eitherTagRevalidates() throws IOException {
+        MockHttpServletResponse fromGzip = handle(request(null, "\"c1-7-gzip\""));
+        MockHttpServletResponse fromIdentity = handle(request("gzip", "\"c1-7\""));
+        MockHttpServletResponse stale = handle(request("gzip", "\"c1-6-gzip\""));
+
+        assertThat(fromGzip.getStatus()).isEqualTo(304);
+        assertThat(fromGzip.getHeader(HttpHeaders.ETAG)).isEqualTo("\"c1-7\"");
+        assertThat(fromIdentity.getStatus()).isEqualTo(304);
+        assertThat(fromIdentity.getHeader(HttpHeaders.ETAG)).isEqualTo("\"c1-7-gzip\"");
+        assertThat(stale.getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request, response, new Object())).isFalse();
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/public/products");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
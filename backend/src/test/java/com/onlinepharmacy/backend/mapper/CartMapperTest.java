@@ -0,0 +1,79 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Cart;
+import com.onlinepharmacy.backend.model.CartItem;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.CartDTO;
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.repositories.projection.CartLineView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CartMapperTest {
+
+    private final CartMapper mapper = new CartMapper(new ProductMapper());
+
+    @Test
+    void cartLinesCarryTheQuantityHeldInTheCart() {
+        Cart cart = cart(product(1L, "Dolo 650", 100), 2, product(2L, "Vicks", 50), 1);
+
+        CartDTO dto = mapper.toDto(cart);
+
+        assertThat(dto.getCartId()).isEqualTo(9L);
+        assertThat(dto.getTotalPrice()).isEqualTo(150.0);
+        assertThat(dto.getProducts()).extracting(ProductDTO::getProductId, ProductDTO::getQuantity)
+                .containsExactly(tuple(1L, 2), tuple(2L, 1));
+    }
+
+    @Test
+    void lineViewsMapLikeTheEntityGraph() {
+        Cart cart = cart(product(1L, "Dolo 650", 100), 2, product(2L, "Vicks", 50), 1);
+        List<CartLineView> rows = List.of(
+                new CartLineView(9L, 150.0, 1L, "Dolo 650", null, null, 2, 40.0, 0.0, 40.0, 0, 0L, 0L),
+                new CartLineView(9L, 150.0, 2L, "Vicks", null, null, 1, 40.0, 0.0, 40.0, 0, 0L, 0L));
+
+        assertThat(mapper.toDto(rows)).isEqualTo(mapper.toDto(cart));
+    }
+
+    @Test
+    void emptyCartRowYieldsNoProducts() {
+        CartDTO dto = mapper.toDto(List.of(
+                new CartLineView(9L, 0.0, null, null, null, null, null, null, null, null, null, null, null)));
+
+        assertThat(dto.getCartId()).isEqualTo(9L);
+        assertThat(dto.getTotalPrice()).isZero();
+        assertThat(dto.getProducts()).isEmpty();
+    }
+
+    private static Cart cart(Product first, int firstQuantity, Product second, int secondQuantity) {
+        Cart cart = new Cart();
+        cart.setCartId(9L);
+        cart.setTotalPrice(150.0);
+        cart.getCartItems().add(line(cart, first, firstQuantity));
+        cart.getCartItems().add(line(cart, second, secondQuantity));
+        return cart;
+    }
+
+    private static CartItem line(Cart cart, Product product, int quantity) {
+        CartItem item = new CartItem();
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setProductPrice(product.getSpecialPrice());
+        return item;
+    }
+
+    private static Product product(Long id, String name, int stock) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setQuantity(stock);
+        product.setPrice(40.0);
+        product.setSpecialPrice(40.0);
+        return product;
+    }
+}
@@ -0,0 +1,41 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.payload.CategoryDTO;
+import com.onlinepharmacy.backend.service.CategoryTreeIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryMapperTest {
+
+    private final CategoryTreeIndex categoryTreeIndex = mock(CategoryTreeIndex.class);
+    private final CategoryMapper mapper = new CategoryMapper(categoryTreeIndex);
+
+    @Test
+    void categoryCarriesParentAndSubtreeCounts() {
+        Category parent = new Category();
+        parent.setCategoryId(1L);
+        Category category = new Category();
+        category.setCategoryId(2L);
+        category.setCategoryName("Pain Relief");
+        category.setParent(parent);
+        when(categoryTreeIndex.counts(2L)).thenReturn(new CategoryTreeIndex.CategoryCounts(12, 9));
+
+        CategoryDTO dto = mapper.toDto(category);
+
+        assertThat(dto).isEqualTo(new CategoryDTO(2L, "Pain Relief", 1L, 12, 9));
+    }
+
+    @Test
+    void rootCategoryHasNoParent() {
+        Category category = new Category();
+        category.setCategoryId(1L);
+        category.setCategoryName("Medicines");
+        when(categoryTreeIndex.counts(1L)).thenReturn(new CategoryTreeIndex.CategoryCounts(0, 0));
+
+        assertThat(mapper.toDto(category).getParentCategoryId()).isNull();
+    }
+}
@@ -0,0 +1,130 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Address;
+import com.onlinepharmacy.backend.model.Cart;
+import com.onlinepharmacy.backend.model.CartItem;
+import com.onlinepharmacy.backend.model.Order;
+import com.onlinepharmacy.backend.model.OrderItem;
+import com.onlinepharmacy.backend.model.Payment;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.CartDTO;
+import com.onlinepharmacy.backend.payload.OrderDTO;
+import com.onlinepharmacy.backend.payload.OrderItemDTO;
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One 50-item page of products, cart lines and order lines, mapped by the hand-written mappers and by
+// ModelMapper the way the services used it before. Run through MapperBenchmarkTest.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    static final int PAGE_SIZE = 50;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ProductMapper productMapper = new ProductMapper();
+    private final CartMapper cartMapper = new CartMapper(productMapper);
+    private final OrderMapper orderMapper = new OrderMapper(productMapper);
+
+    private List<Product> products;
+    private Cart cart;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(PAGE_SIZE);
+        cart = new Cart();
+        cart.setCartId(1L);
+        order = new Order();
+        order.setOrderId(1L);
+        order.setEmail("user@example.com");
+        order.setOrderDate(LocalDate.of(2026, 1, 15));
+        order.setOrderStatus("Order Accepted !");
+        Payment payment = new Payment("card", "pi_1", "succeeded", "ok", "stripe");
+        payment.setPaymentId(1L);
+        order.setPayment(payment);
+        Address address = new Address();
+        address.setAddressId(1L);
+        order.setAddress(address);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Product product = new Product();
+            product.setProductId(id);
+            product.setProductName("Product " + id);
+            product.setImage("product-" + id + ".png");
+            product.setDescription("Description of product " + id);
+            product.setQuantity(100);
+            product.setPrice(40.0);
+            product.setDiscount(10.0);
+            product.setSpecialPrice(36.0);
+            products.add(product);
+            cart.getCartItems().add(new CartItem(id, cart, product, 2, 10.0, 36.0, 0, 0));
+            order.getOrderItems().add(new OrderItem(id, product, order, 2, 10.0, 36.0));
+        }
+    }
+
+    @Benchmark
+    public List<ProductDTO> productMapper() {
+        List<ProductDTO> page = new ArrayList<>(PAGE_SIZE);
+        for (Product product : products) {
+            page.add(productMapper.toDto(product));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<ProductDTO> productModelMapper() {
+        List<ProductDTO> page = new ArrayList<>(PAGE_SIZE);
+        for (Product product : products) {
+            page.add(modelMapper.map(product, ProductDTO.class));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public CartDTO cartMapper() {
+        return cartMapper.toDto(cart);
+    }
+
+    @Benchmark
+    public CartDTO cartModelMapper() {
+        CartDTO dto = modelMapper.map(cart, CartDTO.class);
+        List<ProductDTO> lines = new ArrayList<>(PAGE_SIZE);
+        for (CartItem item : cart.getCartItems()) {
+            ProductDTO line = modelMapper.map(item.getProduct(), ProductDTO.class);
+            line.setQuantity(item.getQuantity());
+            lines.add(line);
+        }
+        dto.setProducts(lines);
+        return dto;
+    }
+
+    @Benchmark
+    public OrderDTO orderMapper() {
+        return orderMapper.toDto(order, order.getOrderItems());
+    }
+
+    @Benchmark
+    public OrderDTO orderModelMapper() {
+        OrderDTO dto = modelMapper.map(order, OrderDTO.class);
+        List<OrderItemDTO> lines = new ArrayList<>(PAGE_SIZE);
+        for (OrderItem item : order.getOrderItems()) {
+            lines.add(modelMapper.map(item, OrderItemDTO.class));
+        }
+        dto.setOrderItems(lines);
+        dto.setAddressId(order.getAddress().getAddressId());
+        return dto;
+    }
+}
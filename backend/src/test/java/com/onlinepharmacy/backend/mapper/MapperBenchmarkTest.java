@@ -0,0 +1,38 @@
+package com.onlinepharmacy.backend.mapper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs MapperBenchmark under JMH with the GC profiler, so each result reports microseconds and
+// allocated bytes (gc.alloc.rate.norm) per page. Skipped by the default build; run with mvn test -Pbenchmark.
+@Tag("benchmark")
+class MapperBenchmarkTest {
+
+    @Test
+    void mappersPerPage() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MapperBenchmark.class.getName() + "\\.")
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(1))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).hasSize(6);
+    }
+}
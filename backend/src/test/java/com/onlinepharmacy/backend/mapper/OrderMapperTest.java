@@ -0,0 +1,72 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.Address;
+import com.onlinepharmacy.backend.model.Order;
+import com.onlinepharmacy.backend.model.OrderItem;
+import com.onlinepharmacy.backend.model.Payment;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.OrderDTO;
+import com.onlinepharmacy.backend.payload.OrderItemDTO;
+import com.onlinepharmacy.backend.payload.PaymentDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderMapperTest {
+
+    private final OrderMapper mapper = new OrderMapper(new ProductMapper());
+
+    @Test
+    void orderIsMappedWithItemsPaymentAndAddress() {
+        Order order = new Order();
+        order.setOrderId(3L);
+        order.setEmail("user@example.com");
+        order.setOrderDate(LocalDate.of(2026, 1, 15));
+        order.setTotalAmount(80.0);
+        order.setOrderStatus("Order Accepted !");
+        Payment payment = new Payment("card", "pi_1", "succeeded", "ok", "stripe");
+        payment.setPaymentId(4L);
+        order.setPayment(payment);
+        Address address = new Address();
+        address.setAddressId(5L);
+        order.setAddress(address);
+        Product product = new Product();
+        product.setProductId(1L);
+        product.setProductName("Dolo 650");
+        OrderItem item = new OrderItem(6L, product, order, 2, 5.0, 40.0);
+
+        OrderDTO dto = mapper.toDto(order, List.of(item));
+
+        assertThat(dto.getOrderId()).isEqualTo(3L);
+        assertThat(dto.getEmail()).isEqualTo("user@example.com");
+        assertThat(dto.getOrderDate()).isEqualTo(LocalDate.of(2026, 1, 15));
+        assertThat(dto.getTotalAmount()).isEqualTo(80.0);
+        assertThat(dto.getOrderStatus()).isEqualTo("Order Accepted !");
+        assertThat(dto.getAddressId()).isEqualTo(5L);
+        assertThat(dto.getPayment()).isEqualTo(new PaymentDTO(4L, "card", "pi_1", "succeeded", "ok", "stripe"));
+        assertThat(dto.getOrderItems()).singleElement().satisfies(line -> {
+            assertThat(line.getOrderItemId()).isEqualTo(6L);
+            assertThat(line.getProduct().getProductId()).isEqualTo(1L);
+            assertThat(line.getQuantity()).isEqualTo(2);
+            assertThat(line.getDiscount()).isEqualTo(5.0);
+            assertThat(line.getOrderedProductPrice()).isEqualTo(40.0);
+        });
+    }
+
+    @Test
+    void missingPaymentAddressAndProductStayNull() {
+        Order order = new Order();
+        order.setOrderId(3L);
+        OrderItem item = new OrderItem();
+        item.setOrderItemId(6L);
+
+        OrderDTO dto = mapper.toDto(order, List.of(item));
+
+        assertThat(dto.getPayment()).isNull();
+        assertThat(dto.getAddressId()).isNull();
+        assertThat(dto.getOrderItems()).extracting(OrderItemDTO::getProduct).containsOnlyNulls();
+    }
+}
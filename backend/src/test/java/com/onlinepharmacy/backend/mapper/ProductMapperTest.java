@@ -0,0 +1,78 @@
+package com.onlinepharmacy.backend.mapper;
+
+import com.onlinepharmacy.backend.model.ImageVariant;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.repositories.projection.ProductFullView;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductMapperTest {
+
+    private final ProductMapper mapper = new ProductMapper();
+
+    @Test
+    void dtoSurvivesARoundTripThroughTheEntity() {
+        ProductDTO dto = new ProductDTO(7L, "Dolo 650", "dolo.jpg", "Fever", 12, 40.0, 10.0, 36.0);
+
+        ProductDTO copy = mapper.toDto(mapper.toEntity(dto));
+
+        assertThat(copy).usingRecursiveComparison()
+                .ignoringFields("thumbnailImage", "cardImage", "fullImage")
+                .isEqualTo(dto);
+    }
+
+    @Test
+    void missingPricesBecomeZero() {
+        ProductDTO dto = new ProductDTO(null, "Dolo 650", null, null, 1, null, null, null);
+
+        Product product = mapper.toEntity(dto);
+
+        assertThat(product.getPrice()).isZero();
+        assertThat(product.getDiscount()).isZero();
+        assertThat(product.getSpecialPrice()).isZero();
+    }
+
+    @Test
+    void listViewMapsLikeTheEntity() {
+        Product product = new Product();
+        product.setProductId(7L);
+        product.setProductName("Dolo 650");
+        product.setImage("dolo.png");
+        product.setImageVariants(ImageVariant.THUMBNAIL.mask() | ImageVariant.FULL.mask());
+        product.setDescription("Fever");
+        product.setQuantity(12);
+        product.setPrice(40.0);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(36.0);
+        ProductListView view = new ProductListView(7L, "Dolo 650", "dolo.png", "Fever", 12, 40.0, 10.0, 36.0,
+                ImageVariant.THUMBNAIL.mask() | ImageVariant.FULL.mask());
+
+        assertThat(mapper.toDto(view)).isEqualTo(mapper.toDto(product));
+    }
+
+    @Test
+    void onlyGeneratedVariantsAreAdvertised() {
+        ProductListView view = new ProductListView(7L, "Dolo 650", "dolo.png", "Fever", 12, 40.0, 10.0, 36.0,
+                ImageVariant.THUMBNAIL.mask() | ImageVariant.FULL.mask());
+
+        ProductDTO dto = mapper.toDto(view);
+
+        assertThat(dto.getThumbnailImage()).isEqualTo("dolo-thumb.png");
+        assertThat(dto.getCardImage()).isNull();
+        assertThat(dto.getFullImage()).isEqualTo("dolo-full.png");
+    }
+
+    @Test
+    void productWithoutImageHasNoVariants() {
+        ProductFullView view = new ProductFullView(7L, "Dolo 650", null, "Fever", 12, 40.0, 10.0, 36.0,
+                ImageVariant.CARD.mask(), null, null, null, null, null, null);
+
+        ProductDTO dto = mapper.toDto(view);
+
+        assertThat(dto.getImage()).isNull();
+        assertThat(dto.getCardImage()).isNull();
+    }
+}
@@ -0,0 +1,175 @@
+package com.onlinepharmacy.backend.repositories;
+
+import com.onlinepharmacy.backend.PostgresContainers;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.model.ProductDetails;
+import com.onlinepharmacy.backend.repositories.projection.ProductListView;
+import com.onlinepharmacy.backend.service.CatalogSortIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.boot.testcontainers.context.ImportTestcontainers;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the listing read paths against N+1 regressions by counting the statements Hibernate prepares.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@ImportTestcontainers(PostgresContainers.class)
+class ProductRepositoryQueryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 30; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setImage("p" + i + ".png");
+            product.setQuantity(i);
+            product.setPrice(10 + i % 4);
+            product.setSpecialPrice(10 + i % 4);
+            products.add(entityManager.persist(product));
+            if (i % 2 == 0) {
+                ProductDetails details = new ProductDetails();
+                details.setProduct(product);
+                details.setIngredients("Ingredients " + i);
+                entityManager.persist(details);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingPageIsOneSelectAndOneCount() {
+        Page<ProductListView> page = productRepository.findListViews(PageRequest.of(0, 10, Sort.by("productId")));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(30);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void productPageWithDetailsIsOneStatement() {
+        Product withDetails = products.get(0);
+        Product withoutDetails = products.get(1);
+
+        assertThat(productRepository.findFullView(withDetails.getProductId()))
+                .hasValueSatisfying(view -> assertThat(view.ingredients()).isEqualTo("Ingredients 0"));
+        assertThat(productRepository.findFullView(withoutDetails.getProductId()))
+                .hasValueSatisfying(view -> assertThat(view.detailsId()).isNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void keysetScrollVisitsEveryRowOnceInSortOrder() {
+        List<Long> ours = products.stream().map(Product::getProductId).toList();
+        Specification<Product> spec = (root, query, cb) -> root.get("productId").in(ours);
+        List<Long> expected = products.stream()
+                .sorted(Comparator.comparingDouble(Product::getPrice).reversed()
+                        .thenComparing(Product::getProductId, Comparator.reverseOrder()))
+                .map(Product::getProductId)
+                .toList();
+
+        List<Long> visited = new ArrayList<>();
+        ProductListView last = null;
+        int pages = 0;
+        while (true) {
+            List<ProductListView> page = productRepository.scrollListViews(spec, "price", false,
+                    last == null ? null : last.price(), last == null ? null : last.productId(), 7);
+            if (page.isEmpty()) {
+                break;
+            }
+            pages++;
+            page.forEach(view -> visited.add(view.productId()));
+            last = page.get(page.size() - 1);
+        }
+
+        assertThat(visited).containsExactlyElementsOf(expected);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(pages + 1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    // Keyword matches can outnumber PostgreSQL's 32767 bind parameters, so they are bound as one array.
+    @Test
+    void idRestrictionBindsAnArrayInsteadOfOneParameterPerId() {
+        List<Long> ids = new ArrayList<>(products.stream().map(Product::getProductId).toList());
+        for (long missing = -1; ids.size() < 40_000; missing--) {
+            ids.add(missing);
+        }
+        Long[] matches = ids.toArray(Long[]::new);
+        Specification<Product> spec = (root, query, cb) ->
+                ((HibernateCriteriaBuilder) cb).arrayContains(matches, root.get("productId"));
+
+        List<ProductListView> page = productRepository.scrollListViews(spec, "productId", true, null, null, 50);
+
+        assertThat(page).extracting(ProductListView::productId)
+                .containsExactlyElementsOf(products.stream().map(Product::getProductId).sorted().toList());
+        assertThat(productRepository.count(spec)).isEqualTo(products.size());
+    }
+
+    // Offset pages come from CatalogSortIndex and cursor pages from the database; both must agree on name order.
+    @Test
+    void cursorNameOrderMatchesTheSortIndex() {
+        List<Long> ours = new ArrayList<>();
+        for (String name : List.of("zinc", "Aspirin", "aspirin", "Ácido", "10mg", "Zinc", "_base", "Ibuprofen")) {
+            Product product = new Product();
+            product.setProductName(name);
+            product.setDescription("Description " + name);
+            product.setQuantity(1);
+            ours.add(entityManager.persist(product).getProductId());
+        }
+        entityManager.flush();
+        CatalogSortIndex sortIndex = new CatalogSortIndex(productRepository);
+        sortIndex.rebuild();
+        Specification<Product> spec = (root, query, cb) -> root.get("productId").in(ours);
+
+        for (boolean ascending : List.of(true, false)) {
+            List<Long> visited = new ArrayList<>();
+            ProductListView last = null;
+            while (true) {
+                List<ProductListView> page = productRepository.scrollListViews(spec, "productName", ascending,
+                        last == null ? null : last.productName(), last == null ? null : last.productId(), 3);
+                if (page.isEmpty()) {
+                    break;
+                }
+                page.forEach(view -> visited.add(view.productId()));
+                last = page.get(page.size() - 1);
+            }
+
+            assertThat(visited).containsExactlyElementsOf(
+                    sortIndex.pageOf("productName", ascending, ours, 0, ours.size()).productIds());
+        }
+    }
+}
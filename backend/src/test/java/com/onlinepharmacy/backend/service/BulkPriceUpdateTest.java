@@ -0,0 +1,102 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.PostgresContainers;
+import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.payload.BulkPriceUpdateRequest;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.context.ImportTestcontainers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Repricing a category larger than PostgreSQL's 32767 bind parameters must still reach every
+// in-memory index through the after-commit product change listeners.
+@SpringBootTest(properties = {
+        "JWT_SECRET=YnVsay1wcmljaW5nLXRlc3Qtc2VjcmV0LWJ1bGstcHJpY2luZy10ZXN0LXNlY3JldA==",
+        "MAIL_USERNAME=test@example.com",
+        "MAIL_APP_PASSWORD=test"
+})
+@RecordApplicationEvents
+@Testcontainers(disabledWithoutDocker = true)
+@ImportTestcontainers(PostgresContainers.class)
+class BulkPriceUpdateTest {
+
+    private static final int PRODUCTS = 40_000;
+    private static final long FIRST_ID = 900_000_000L;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+    @Autowired
+    private CatalogSortIndex catalogSortIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEvents events;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setCategoryName("Bulk pricing " + System.nanoTime());
+        category = categoryRepository.save(category);
+        jdbcTemplate.update("""
+                insert into products (product_id, product_name, description, quantity, price, discount,
+                                      special_price, image_variants, price_version, version, category_id)
+                select ? + g, 'Bulk product ' || g, 'Bulk description ' || g, 10, 95, 0, 95, 0, 0, 0, ?
+                from generate_series(1, ?) g
+                """, FIRST_ID, category.getCategoryId(), PRODUCTS);
+        productFacetIndex.rebuild();
+        catalogSortIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from products where category_id = ?", category.getCategoryId());
+        categoryRepository.deleteById(category.getCategoryId());
+    }
+
+    @Test
+    void repricingALargeCategoryUpdatesTheIndexesInBoundedEvents() {
+        Map<String, Long> before = priceBuckets();
+        assertThat(before).containsEntry("0-100", (long) PRODUCTS);
+
+        BulkPriceUpdateRequest request = new BulkPriceUpdateRequest();
+        request.setCategoryId(category.getCategoryId());
+        request.setPriceChangePercent(10.0);
+        assertThat(productService.bulkUpdatePrices(request).getProductsUpdated()).isEqualTo(PRODUCTS);
+
+        List<ProductChangedEvent> changes = events.stream(ProductChangedEvent.class).toList();
+        assertThat(changes).allSatisfy(event ->
+                assertThat(event.productIds()).hasSizeLessThanOrEqualTo(ProductChangedEvent.MAX_PRODUCT_IDS));
+        Set<Long> changed = new HashSet<>();
+        changes.forEach(event -> changed.addAll(event.productIds()));
+        assertThat(changed).hasSize(PRODUCTS);
+
+        assertThat(priceBuckets()).containsEntry("0-100", 0L).containsEntry("100-250", (long) PRODUCTS);
+        assertThat(catalogSortIndex.pageInCategories("price", true, Set.of(category.getCategoryId()), 0, 1)
+                .totalElements()).isEqualTo(PRODUCTS);
+    }
+
+    private Map<String, Long> priceBuckets() {
+        return productFacetIndex.query(Map.of(ProductFacetIndex.CATEGORY, List.of(String.valueOf(category.getCategoryId()))))
+                .counts().get(ProductFacetIndex.PRICE);
+    }
+}
@@ -0,0 +1,139 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.PostgresContainers;
+import com.onlinepharmacy.backend.model.Product;
+import com.onlinepharmacy.backend.model.User;
+import com.onlinepharmacy.backend.payload.CartOperation;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.context.ImportTestcontainers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many writers on one cart must all land: every conflict is retried, no increment is lost and the
+// stored total always equals the sum of the stored lines.
+@SpringBootTest(properties = {
+        "JWT_SECRET=Y2FydC1jb25jdXJyZW5jeS10ZXN0LXNlY3JldC1jYXJ0LWNvbmN1cnJlbmN5LXRlc3Q=",
+        "MAIL_USERNAME=test@example.com",
+        "MAIL_APP_PASSWORD=test",
+        "app.cart.update-attempts=100"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@ImportTestcontainers(PostgresContainers.class)
+class CartServiceConcurrencyTest {
+
+    private static final int UPDATERS = 64;
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product product;
+    private Product batched;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = Long.toString(System.nanoTime() % 1_000_000_000L, 36);
+        user = new User();
+        user.setUserName("cart-" + suffix);
+        user.setEmail("cart-" + suffix + "@example.com");
+        user.setPassword("password");
+        user = userRepository.save(user);
+        signIn();
+
+        product = productRepository.save(product("Cart product " + suffix, 12.5));
+        batched = productRepository.save(product("Cart batched " + suffix, 7.25));
+        cartService.addProductToCart(product.getProductId(), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.update("delete from cart_items where cart_id in (select cart_id from carts where user_id = ?)", user.getUserId());
+        jdbcTemplate.update("delete from carts where user_id = ?", user.getUserId());
+        jdbcTemplate.update("delete from products where product_id in (?, ?)", product.getProductId(), batched.getProductId());
+        jdbcTemplate.update("delete from users where user_id = ?", user.getUserId());
+    }
+
+    @Test
+    void parallelUpdatersLoseNoIncrements() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(UPDATERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> updates = new ArrayList<>();
+        try {
+            for (int i = 0; i < UPDATERS; i++) {
+                boolean quantityUpdate = i % 2 == 0;
+                updates.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    signIn();
+                    if (quantityUpdate) {
+                        cartService.updateProductQuantityInCart(product.getProductId(), 1);
+                    } else {
+                        cartService.applyCartOperations(List.of(
+                                new CartOperation(CartOperation.Type.ADD, batched.getProductId(), 1)));
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(updates.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Long cartId = jdbcTemplate.queryForObject("select cart_id from carts where user_id = ?", Long.class, user.getUserId());
+        assertThat(quantity(cartId, product)).isEqualTo(1 + UPDATERS / 2);
+        assertThat(quantity(cartId, batched)).isEqualTo(UPDATERS / 2);
+        Double total = jdbcTemplate.queryForObject("select total_price from carts where cart_id = ?", Double.class, cartId);
+        Double lineSum = jdbcTemplate.queryForObject(
+                "select sum(product_price * quantity) from cart_items where cart_id = ?", Double.class, cartId);
+        assertThat(total).isEqualTo(lineSum).isEqualTo(12.5 * (1 + UPDATERS / 2) + 7.25 * (UPDATERS / 2));
+    }
+
+    private void signIn() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserName(), null, List.of()));
+    }
+
+    private Integer quantity(Long cartId, Product product) {
+        return jdbcTemplate.queryForObject("select quantity from cart_items where cart_id = ? and product_id = ?",
+                Integer.class, cartId, product.getProductId());
+    }
+
+    private static Product product(String name, double price) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setDescription("Description of " + name);
+        product.setQuantity(1000);
+        product.setPrice(price);
+        product.setSpecialPrice(price);
+        return product;
+    }
+}
@@ -0,0 +1,115 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductSortView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSortIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CatalogSortIndex index = new CatalogSortIndex(productRepository);
+
+    @Test
+    void namesSortCaseInsensitivelyByCodePoint() {
+        load(List.of(view(1L, "zinc", 1L, 10), view(2L, "Aspirin", 1L, 10), view(3L, "aspirin", 1L, 10),
+                view(4L, "Ácido", 1L, 10), view(5L, "10mg", 1L, 10), view(6L, "Zinc", 1L, 10)));
+
+        assertThat(index.page("productName", true, 0, 10).productIds()).containsExactly(5L, 2L, 3L, 1L, 6L, 4L);
+        assertThat(index.page("productName", false, 0, 10).productIds()).containsExactly(4L, 6L, 1L, 3L, 2L, 5L);
+    }
+
+    @Test
+    void changesAreAppliedInPlace() {
+        load(List.of(view(1L, "a", 1L, 30), view(2L, "b", 1L, 10), view(3L, "c", 2L, 20)));
+        change(Set.of(1L, 2L, 4L), List.of(view(2L, "b", 2L, 40), view(4L, "d", 1L, 5)));
+
+        assertThat(index.page("price", true, 0, 10).productIds()).containsExactly(4L, 3L, 2L);
+        assertThat(index.page("price", true, 0, 10).totalElements()).isEqualTo(3);
+        assertThat(index.pageInCategories("price", true, Set.of(2L), 0, 10).productIds()).containsExactly(3L, 2L);
+        assertThat(index.pageInCategories("price", true, Set.of(1L), 0, 10).productIds()).containsExactly(4L);
+    }
+
+    @Test
+    void filteredPagesCountOnlyMatches() {
+        List<ProductSortView> views = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            views.add(view(id, "p" + id, id % 4, 1000 - id));
+        }
+        load(views);
+
+        CatalogSortIndex.SortedPage few = index.pageOf("price", true, List.of(7L, 3L, 150L, 999L), 0, 2);
+        assertThat(few.productIds()).containsExactly(150L, 7L);
+        assertThat(few.totalElements()).isEqualTo(3);
+
+        CatalogSortIndex.SortedPage many = index.pageInCategories("price", false, Set.of(1L, 2L), 1, 3);
+        assertThat(many.productIds()).containsExactly(6L, 9L, 10L);
+        assertThat(many.totalElements()).isEqualTo(100);
+    }
+
+    // Random batches of inserts, updates and deletes must leave every permutation in the order a full sort gives.
+    @Test
+    void permutationsMatchAFullSortAfterRandomChanges() {
+        Random random = new Random(7);
+        Map<Long, ProductSortView> rows = new LinkedHashMap<>();
+        for (long id = 1; id <= 300; id++) {
+            rows.put(id, randomView(random, id));
+        }
+        load(new ArrayList<>(rows.values()));
+
+        for (int round = 0; round < 50; round++) {
+            Set<Long> changed = new HashSet<>();
+            List<ProductSortView> updated = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                long id = 1 + random.nextInt(400);
+                changed.add(id);
+                if (random.nextInt(4) == 0) {
+                    rows.remove(id);
+                } else {
+                    rows.put(id, randomView(random, id));
+                }
+            }
+            changed.forEach(id -> {
+                if (rows.containsKey(id)) updated.add(rows.get(id));
+            });
+            change(changed, updated);
+
+            List<Long> expected = rows.values().stream()
+                    .sorted(Comparator.comparingInt(ProductSortView::quantity).thenComparing(ProductSortView::productId))
+                    .map(ProductSortView::productId)
+                    .toList();
+            assertThat(index.page("quantity", true, 0, 1000).productIds()).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private void load(List<ProductSortView> views) {
+        when(productRepository.findAllSortViews()).thenReturn(views);
+        index.rebuild();
+    }
+
+    private void change(Set<Long> productIds, List<ProductSortView> views) {
+        when(productRepository.findSortViews(anyCollection())).thenReturn(views);
+        index.onProductChanged(ProductChangedEvent.of(productIds));
+    }
+
+    private static ProductSortView randomView(Random random, long id) {
+        return new ProductSortView(id, "p" + id, (long) random.nextInt(5), random.nextInt(100), 0, 0, random.nextInt(30));
+    }
+
+    private static ProductSortView view(Long id, String name, Long categoryId, double price) {
+        return new ProductSortView(id, name, categoryId, price, 0, price, 1);
+    }
+}
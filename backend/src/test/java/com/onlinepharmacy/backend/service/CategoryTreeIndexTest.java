@@ -0,0 +1,75 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.CategoryClosureRepository;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CategoryParentView;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryTreeIndexTest {
+
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryTreeIndex index = new CategoryTreeIndex(categoryRepository,
+            mock(CategoryClosureRepository.class), productRepository);
+
+    @BeforeEach
+    void setUp() {
+        // 1 > 2 > 3, and 4 is a second root
+        when(categoryRepository.findParentViews()).thenReturn(List.of(new CategoryParentView(1L, null),
+                new CategoryParentView(2L, 1L), new CategoryParentView(3L, 2L), new CategoryParentView(4L, null)));
+        when(productRepository.findAllFacetViews()).thenReturn(List.of(
+                new ProductFacetView(10L, 1L, 5, 0, 1),
+                new ProductFacetView(11L, 3L, 5, 0, 0),
+                new ProductFacetView(12L, 4L, 5, 0, 3)));
+        index.rebuild();
+    }
+
+    @Test
+    void subtreeContainsTheCategoryAndAllDescendants() {
+        assertThat(index.subtree(1L)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(index.subtree(3L)).containsExactly(3L);
+        assertThat(index.subtree(99L)).isEmpty();
+    }
+
+    @Test
+    void pathRunsFromTheCategoryToTheRoot() {
+        assertThat(index.path(3L)).containsExactly(3L, 2L, 1L);
+        assertThat(index.path(4L)).containsExactly(4L);
+        assertThat(index.path(99L)).isEmpty();
+    }
+
+    @Test
+    void subtreesFollowTreeChanges() {
+        when(categoryRepository.findParentViews()).thenReturn(List.of(new CategoryParentView(1L, null),
+                new CategoryParentView(2L, 1L), new CategoryParentView(3L, 4L), new CategoryParentView(4L, null)));
+
+        index.onCategoryChanged(new CategoryChangedEvent(3L));
+
+        assertThat(index.subtree(1L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.subtree(4L)).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(index.counts(4L)).isEqualTo(new CategoryTreeIndex.CategoryCounts(2, 1));
+    }
+
+    @Test
+    void countsRollUpAndFollowProductMoves() {
+        assertThat(index.counts(1L)).isEqualTo(new CategoryTreeIndex.CategoryCounts(2, 1));
+        assertThat(index.counts(2L)).isEqualTo(new CategoryTreeIndex.CategoryCounts(1, 0));
+
+        when(productRepository.findFacetViews(Set.of(11L))).thenReturn(List.of(new ProductFacetView(11L, 4L, 5, 0, 2)));
+        index.onProductChanged(ProductChangedEvent.of(11L));
+
+        assertThat(index.counts(1L)).isEqualTo(new CategoryTreeIndex.CategoryCounts(1, 1));
+        assertThat(index.counts(2L)).isEqualTo(new CategoryTreeIndex.CategoryCounts(0, 0));
+        assertThat(index.counts(4L)).isEqualTo(new CategoryTreeIndex.CategoryCounts(2, 2));
+    }
+}
@@ -0,0 +1,87 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.StoredImageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class FileServiceImplTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0, 1, 2, 3};
+
+    private final StoredImageRepository storedImageRepository = mock(StoredImageRepository.class);
+    private final FileServiceImpl fileService =
+            new FileServiceImpl(storedImageRepository, mock(PlatformTransactionManager.class));
+
+    @TempDir
+    Path root;
+
+    FileServiceImplTest() {
+        ReflectionTestUtils.setField(fileService, "maxUploadBytes", 1024L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void stagesUploadsOutsideTheServedDirectory() throws IOException {
+        Path images = root.resolve("images");
+
+        String fileName = fileService.storeImage(images.toString(), new ByteArrayInputStream(PNG));
+
+        assertThat(Files.readAllBytes(images.resolve(fileName))).isEqualTo(PNG);
+        try (Stream<Path> files = Files.walk(images)) {
+            assertThat(files.filter(Files::isRegularFile)).containsExactly(images.resolve(fileName));
+        }
+        try (Stream<Path> staged = Files.list(root.resolve("images-staging"))) {
+            assertThat(staged).isEmpty();
+        }
+    }
+
+    @Test
+    void referenceIsReleasedWhenTheCallersTransactionRollsBack() throws IOException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        String fileName = fileService.storeImage(root.resolve("images").toString(), new ByteArrayInputStream(PNG));
+        String hash = fileName.substring(6, fileName.indexOf('.'));
+        verify(storedImageRepository).acquire(eq(hash), eq("png"), eq((long) PNG.length));
+        verify(storedImageRepository, never()).release(anyString());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verify(storedImageRepository).release(hash);
+    }
+
+    @Test
+    void referenceIsKeptWhenTheCallersTransactionCommits() throws IOException {
+        TransactionSynchronizationManager.initSynchronization();
+
+        fileService.storeImage(root.resolve("images").toString(), new ByteArrayInputStream(PNG));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        verify(storedImageRepository, never()).release(anyString());
+    }
+}
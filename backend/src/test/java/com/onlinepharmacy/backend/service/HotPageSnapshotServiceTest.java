@@ -0,0 +1,144 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.payload.ProductResponse;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CategoryParentView;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotPageSnapshotServiceTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryTreeIndex categoryTreeIndex = mock(CategoryTreeIndex.class);
+    private final CatalogVersionService catalogVersionService = mock(CatalogVersionService.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final AtomicLong version = new AtomicLong();
+
+    private HotPageSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HotPageSnapshotService(productService, categoryRepository, productRepository,
+                categoryTreeIndex, catalogVersionService, JsonMapper.builder().build(), taskScheduler);
+        ReflectionTestUtils.setField(service, "hotPages", 1);
+        when(catalogVersionService.catalogEtag()).thenAnswer(invocation -> "\"c" + version.get() + "\"");
+        when(productService.getAllProducts(anyInt(), anyInt(), anyString(), anyString())).thenReturn(new ProductResponse());
+        when(productService.searchByCategory(anyLong(), anyInt(), anyInt(), anyString(), anyString()))
+                .thenReturn(new ProductResponse());
+        // 1 is the root; 2 and 3 are its children.
+        when(categoryRepository.findParentViews()).thenReturn(List.of(
+                new CategoryParentView(1L, null), new CategoryParentView(2L, 1L), new CategoryParentView(3L, 1L)));
+        when(productRepository.findAllFacetViews()).thenReturn(List.of(
+                new ProductFacetView(10L, 2L, 5, 0, 1), new ProductFacetView(11L, 3L, 5, 0, 1)));
+        when(categoryTreeIndex.path(1L)).thenReturn(List.of(1L));
+        when(categoryTreeIndex.path(2L)).thenReturn(List.of(2L, 1L));
+        when(categoryTreeIndex.path(3L)).thenReturn(List.of(3L, 1L));
+
+        service.onReady();
+        runScheduledRebuild();
+        clearInvocations(productService, taskScheduler);
+    }
+
+    @Test
+    void startupBuildsEveryCategory() {
+        assertThat(service.allProductsPage(0)).isNotNull();
+        assertThat(service.categoryFirstPage(1L)).isNotNull();
+        assertThat(service.categoryFirstPage(2L)).isNotNull();
+        assertThat(service.categoryFirstPage(3L)).isNotNull();
+    }
+
+    @Test
+    void productChangeRebuildsOnlyItsCategoryPath() {
+        when(productRepository.findFacetViews(Set.of(10L))).thenReturn(List.of(new ProductFacetView(10L, 2L, 4, 0, 1)));
+
+        service.onProductChanged(ProductChangedEvent.of(10L));
+        version.incrementAndGet();
+        runScheduledRebuild();
+
+        verify(productService).getAllProducts(anyInt(), anyInt(), anyString(), anyString());
+        verify(productService).searchByCategory(eq(2L), anyInt(), anyInt(), anyString(), anyString());
+        verify(productService).searchByCategory(eq(1L), anyInt(), anyInt(), anyString(), anyString());
+        verify(productService, never()).searchByCategory(eq(3L), anyInt(), anyInt(), anyString(), anyString());
+        assertThat(service.categoryFirstPage(3L)).isNotNull();
+        assertThat(service.categoryFirstPage(3L).etag()).isEqualTo("\"c1\"");
+    }
+
+    @Test
+    void movedProductRefreshesTheCategoryItLeft() {
+        when(productRepository.findFacetViews(Set.of(10L))).thenReturn(List.of(new ProductFacetView(10L, 3L, 5, 0, 1)));
+
+        service.onProductChanged(ProductChangedEvent.of(10L));
+        version.incrementAndGet();
+        runScheduledRebuild();
+
+        verify(productService).searchByCategory(eq(2L), anyInt(), anyInt(), anyString(), anyString());
+        verify(productService).searchByCategory(eq(3L), anyInt(), anyInt(), anyString(), anyString());
+        verify(productService).searchByCategory(eq(1L), anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    void changeDuringRebuildIsRequeuedNotStamped() {
+        when(productRepository.findFacetViews(Set.of(10L))).thenReturn(List.of(new ProductFacetView(10L, 2L, 4, 0, 1)));
+        when(productRepository.findFacetViews(Set.of(11L))).thenReturn(List.of(new ProductFacetView(11L, 3L, 4, 0, 1)));
+        service.onProductChanged(ProductChangedEvent.of(10L));
+        version.incrementAndGet();
+        when(productService.searchByCategory(eq(2L), anyInt(), anyInt(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    service.onProductChanged(ProductChangedEvent.of(11L));
+                    version.incrementAndGet();
+                    return new ProductResponse();
+                })
+                .thenReturn(new ProductResponse());
+
+        runScheduledRebuild();
+
+        assertThat(service.categoryFirstPage(2L)).isNull();
+        runScheduledRebuild();
+        verify(productService, times(2)).searchByCategory(eq(2L), anyInt(), anyInt(), anyString(), anyString());
+        verify(productService).searchByCategory(eq(3L), anyInt(), anyInt(), anyString(), anyString());
+        assertThat(service.categoryFirstPage(2L).etag()).isEqualTo("\"c2\"");
+        assertThat(service.categoryFirstPage(3L).etag()).isEqualTo("\"c2\"");
+    }
+
+    @Test
+    void categoryChangeRebuildsEverything() {
+        service.onCategoryChanged(new CategoryChangedEvent(3L));
+        version.incrementAndGet();
+        runScheduledRebuild();
+
+        verify(productService, times(3)).searchByCategory(anyLong(), anyInt(), anyInt(), anyString(), anyString());
+    }
+
+    private void runScheduledRebuild() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(task.capture(), any(Instant.class));
+        clearInvocations(taskScheduler);
+        task.getValue().run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.model.ImageVariant;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ImageVariantServiceTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ImageVariantService service =
+            new ImageVariantService(productRepository, mock(ApplicationEventPublisher.class), Runnable::run);
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(service, "path", dir.toString());
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.8f);
+        ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), "png", dir.resolve("photo.png").toFile());
+    }
+
+    @Test
+    void writesEveryVariantWithinThePixelLimit() {
+        ReflectionTestUtils.setField(service, "maxPixels", 120_000L);
+
+        service.onProductImageChanged(new ProductImageChangedEvent(1L, "photo.png"));
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            assertThat(Files.exists(dir.resolve(variant.fileName("photo.png")))).isTrue();
+        }
+        verify(productRepository).updateImageVariants(eq(1L), eq("photo.png"), anyInt());
+    }
+
+    @Test
+    void rejectsImagesAboveThePixelLimitBeforeDecoding() {
+        ReflectionTestUtils.setField(service, "maxPixels", 119_999L);
+
+        service.onProductImageChanged(new ProductImageChangedEvent(1L, "photo.png"));
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            assertThat(Files.exists(dir.resolve(variant.fileName("photo.png")))).isFalse();
+        }
+        verify(productRepository, never()).updateImageVariants(anyLong(), anyString(), anyInt());
+    }
+}
@@ -0,0 +1,57 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.payload.ProductDTO;
+import com.onlinepharmacy.backend.payload.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheServiceTest {
+
+    private final ProductCacheService cacheService = new ProductCacheService(100, 600, 100, 120);
+
+    @Test
+    void cachedProductCannotBeModifiedByCallers() {
+        cacheService.getProduct(1L, () -> product(1L, 10.0)).setPrice(0.0);
+        cacheService.getProduct(1L, () -> product(1L, 99.0)).setQuantity(-1);
+
+        ProductDTO cached = cacheService.getProduct(1L, () -> product(1L, 99.0));
+        assertThat(cached.getPrice()).isEqualTo(10.0);
+        assertThat(cached.getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void cachedListingContentCannotBeModifiedByCallers() {
+        ProductResponse first = cacheService.getListing("all", () -> listing(product(1L, 10.0)));
+        first.getContent().get(0).setPrice(0.0);
+        first.getContent().clear();
+
+        ProductResponse cached = cacheService.getListing("all", () -> listing(product(2L, 20.0)));
+        assertThat(cached.getContent()).singleElement()
+                .extracting(ProductDTO::getPrice).isEqualTo(10.0);
+    }
+
+    @Test
+    void productChangeInvalidatesProductAndListings() {
+        cacheService.getProduct(1L, () -> product(1L, 10.0));
+        cacheService.getListing("all", () -> listing(product(1L, 10.0)));
+
+        cacheService.onProductChanged(ProductChangedEvent.of(1L));
+
+        assertThat(cacheService.getProduct(1L, () -> product(1L, 12.0)).getPrice()).isEqualTo(12.0);
+        assertThat(cacheService.getListing("all", () -> listing(product(1L, 12.0))).getContent().get(0).getPrice())
+                .isEqualTo(12.0);
+    }
+
+    private static ProductDTO product(Long id, double price) {
+        return new ProductDTO(id, "Product " + id, "p.png", "description", 5, price, 0.0, price);
+    }
+
+    private static ProductResponse listing(ProductDTO... products) {
+        return new ProductResponse(new ArrayList<>(List.of(products)), 0, 10, (long) products.length, 1,
+                true, null, null);
+    }
+}
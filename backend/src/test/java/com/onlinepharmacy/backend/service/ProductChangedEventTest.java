@@ -0,0 +1,33 @@
+package com.onlinepharmacy.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangedEventTest {
+
+    @Test
+    void largeChangesAreSplitBelowTheBindParameterLimit() {
+        List<Long> ids = LongStream.rangeClosed(1, 40_000).boxed().toList();
+
+        List<ProductChangedEvent> events = ProductChangedEvent.inChunks(ids);
+
+        assertThat(events).hasSize(40).allSatisfy(event ->
+                assertThat(event.productIds()).hasSizeLessThanOrEqualTo(ProductChangedEvent.MAX_PRODUCT_IDS));
+        Set<Long> covered = new HashSet<>();
+        events.forEach(event -> covered.addAll(event.productIds()));
+        assertThat(covered).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void duplicatesAreDroppedAndNoChangeMeansNoEvent() {
+        assertThat(ProductChangedEvent.inChunks(List.of(3L, 3L, 4L))).singleElement()
+                .satisfies(event -> assertThat(event.productIds()).containsExactlyInAnyOrder(3L, 4L));
+        assertThat(ProductChangedEvent.inChunks(List.of())).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.exceptions.APIException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void roundTripsEachSortKeyType() {
+        assertRoundTrip(new ProductCursor("productId", "asc", 42L, 42L));
+        assertRoundTrip(new ProductCursor("price", "desc", 7L, 12.5));
+        assertRoundTrip(new ProductCursor("productName", "asc", 3L, "Aspirin | 500mg"));
+    }
+
+    @Test
+    void sortOrderIsMatchedCaseInsensitively() {
+        String token = new ProductCursor("price", "ASC", 7L, 12.5).encode();
+
+        assertThat(ProductCursor.decode(token, "price", "asc").productId()).isEqualTo(7L);
+    }
+
+    @Test
+    void rejectsTokenThatIsNotBase64() {
+        assertThatThrownBy(() -> ProductCursor.decode("not base64!", "productId", "asc"))
+                .isInstanceOf(APIException.class).hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsTokenWithMissingParts() {
+        assertThatThrownBy(() -> ProductCursor.decode(encode("productId|asc|42"), "productId", "asc"))
+                .isInstanceOf(APIException.class).hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsTamperedNumbers() {
+        assertThatThrownBy(() -> ProductCursor.decode(encode("productId|asc|x|42"), "productId", "asc"))
+                .isInstanceOf(APIException.class).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> ProductCursor.decode(encode("price|asc|42|cheap"), "price", "asc"))
+                .isInstanceOf(APIException.class).hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSortOrder() {
+        String token = new ProductCursor("price", "asc", 7L, 12.5).encode();
+
+        assertThatThrownBy(() -> ProductCursor.decode(token, "price", "desc"))
+                .isInstanceOf(APIException.class).hasMessage("Cursor does not match the requested sort order");
+        assertThatThrownBy(() -> ProductCursor.decode(token, "discount", "asc"))
+                .isInstanceOf(APIException.class).hasMessage("Cursor does not match the requested sort order");
+    }
+
+    private static void assertRoundTrip(ProductCursor cursor) {
+        ProductCursor decoded = ProductCursor.decode(cursor.encode(), cursor.sortBy(), cursor.sortOrder());
+
+        assertThat(decoded.productId()).isEqualTo(cursor.productId());
+        assertThat(decoded.sortValue()).isEqualTo(cursor.sortValue());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
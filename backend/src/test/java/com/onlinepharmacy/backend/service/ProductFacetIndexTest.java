@@ -0,0 +1,68 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductFacetView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryTreeIndex categoryTreeIndex = mock(CategoryTreeIndex.class);
+    private final ProductFacetIndex index = new ProductFacetIndex(productRepository, categoryTreeIndex);
+
+    @BeforeEach
+    void setUp() {
+        // 1 > 2 > 3, and 4 is a second root
+        when(categoryTreeIndex.subtree(1L)).thenReturn(Set.of(1L, 2L, 3L));
+        when(categoryTreeIndex.subtree(2L)).thenReturn(Set.of(2L, 3L));
+        when(categoryTreeIndex.subtree(3L)).thenReturn(Set.of(3L));
+        when(categoryTreeIndex.subtree(4L)).thenReturn(Set.of(4L));
+        when(categoryTreeIndex.path(1L)).thenReturn(List.of(1L));
+        when(categoryTreeIndex.path(2L)).thenReturn(List.of(2L, 1L));
+        when(categoryTreeIndex.path(3L)).thenReturn(List.of(3L, 2L, 1L));
+        when(categoryTreeIndex.path(4L)).thenReturn(List.of(4L));
+        when(productRepository.findAllFacetViews()).thenReturn(List.of(
+                new ProductFacetView(10L, 1L, 50, 0, 1),
+                new ProductFacetView(11L, 3L, 150, 15, 0),
+                new ProductFacetView(12L, 3L, 60, 0, 4),
+                new ProductFacetView(13L, 4L, 70, 0, 2)));
+        index.rebuild();
+    }
+
+    @Test
+    void categoryFilterMatchesTheWholeSubtree() {
+        assertThat(index.query(Map.of(ProductFacetIndex.CATEGORY, List.of("1"))).productIds())
+                .containsExactlyInAnyOrder(10L, 11L, 12L);
+        assertThat(index.query(Map.of(ProductFacetIndex.CATEGORY, List.of("2"))).productIds())
+                .containsExactlyInAnyOrder(11L, 12L);
+        assertThat(index.query(Map.of(ProductFacetIndex.CATEGORY, List.of("2", "4"))).productIds())
+                .containsExactlyInAnyOrder(11L, 12L, 13L);
+    }
+
+    @Test
+    void categoryCountsIncludeDescendants() {
+        Map<String, Long> counts = index.query(Map.of(ProductFacetIndex.PRICE, List.of("0-100")))
+                .counts().get(ProductFacetIndex.CATEGORY);
+
+        assertThat(counts).containsEntry("1", 2L).containsEntry("2", 1L).containsEntry("3", 1L).containsEntry("4", 1L);
+    }
+
+    @Test
+    void otherFacetsAreCountedAgainstTheCategoryFilter() {
+        Map<String, Map<String, Long>> counts = index.query(Map.of(ProductFacetIndex.CATEGORY, List.of("2"))).counts();
+
+        assertThat(counts.get(ProductFacetIndex.AVAILABILITY))
+                .containsEntry(ProductFacetIndex.IN_STOCK, 1L)
+                .containsEntry(ProductFacetIndex.OUT_OF_STOCK, 1L);
+        assertThat(counts.get(ProductFacetIndex.PRICE)).containsEntry("0-100", 1L).containsEntry("100-250", 1L);
+    }
+}
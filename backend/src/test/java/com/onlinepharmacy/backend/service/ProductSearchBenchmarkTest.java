@@ -0,0 +1,142 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.PostgresContainers;
+import com.onlinepharmacy.backend.model.Category;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.context.ImportTestcontainers;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// First page of a keyword search, LIKE on product_name against the in-memory index plus a lookup of
+// the page rows, at 100k and 1M products. Skipped by the default build; run with mvn test -Pbenchmark.
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(properties = {
+        "JWT_SECRET=cHJvZHVjdC1zZWFyY2gtYmVuY2htYXJrLXNlY3JldC1wcm9kdWN0LXNlYXJjaC1iZW5jaA==",
+        "MAIL_USERNAME=test@example.com",
+        "MAIL_APP_PASSWORD=test"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@ImportTestcontainers(PostgresContainers.class)
+class ProductSearchBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchBenchmarkTest.class);
+
+    private static final long FIRST_ID = 800_000_000L;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 5;
+    private static final int MEASURED = 20;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category category;
+    private int loaded;
+
+    @BeforeAll
+    void createCategory() {
+        category = new Category();
+        category.setCategoryName("Search benchmark " + System.nanoTime());
+        category = categoryRepository.save(category);
+    }
+
+    @AfterAll
+    void tearDown() {
+        jdbcTemplate.update("delete from products where category_id = ?", category.getCategoryId());
+        categoryRepository.deleteById(category.getCategoryId());
+        productSearchIndex.rebuild();
+    }
+
+    @Test
+    @Order(1)
+    void searchAt100kProducts() {
+        compare(100_000);
+    }
+
+    @Test
+    @Order(2)
+    void searchAt1mProducts() {
+        compare(1_000_000);
+    }
+
+    // "ibuprofen" names one product in twenty, "zolmitriptan" one in a thousand.
+    private void compare(int products) {
+        grow(products);
+        for (String keyword : List.of("ibuprofen", "zolmitriptan")) {
+            long likeTotal = productRepository.findByProductNameLikeIgnoreCase("%" + keyword + "%",
+                    PageRequest.of(0, PAGE_SIZE)).getTotalElements();
+            assertThat(productSearchIndex.search(keyword)).hasSize((int) likeTotal);
+
+            double like = medianMillis(() -> productRepository.findByProductNameLikeIgnoreCase(
+                    "%" + keyword + "%", PageRequest.of(0, PAGE_SIZE)).getContent());
+            double index = medianMillis(() -> {
+                List<Long> matches = productSearchIndex.search(keyword);
+                return productRepository.findListViews(matches.subList(0, Math.min(PAGE_SIZE, matches.size())));
+            });
+            logger.info("{} products, \"{}\" ({} matches): LIKE {} ms, index {} ms per page of {}",
+                    products, keyword, likeTotal, String.format("%.2f", like), String.format("%.2f", index), PAGE_SIZE);
+        }
+    }
+
+    private void grow(int products) {
+        if (products > loaded) {
+            jdbcTemplate.update("""
+                    insert into products (product_id, product_name, description, quantity, price, discount,
+                                          special_price, image_variants, price_version, version, category_id)
+                    select ? + g,
+                           case when g % 1000 = 0 then 'Zolmitriptan'
+                                else (array['Ibuprofen', 'Paracetamol', 'Aspirin', 'Cetirizine', 'Loratadine',
+                                            'Omeprazole', 'Naproxen', 'Diclofenac', 'Amoxicillin', 'Metformin',
+                                            'Simvastatin', 'Lisinopril', 'Amlodipine', 'Sertraline', 'Melatonin',
+                                            'Zinc', 'Magnesium', 'Vitamin', 'Probiotic', 'Saline'])[1 + g % 20] end
+                           || ' ' || (array['tablets', 'capsules', 'syrup', 'gel', 'drops'])[1 + g % 5] || ' ' || g,
+                           'Pharmacy item number ' || g, 10, 10 + g % 90, 0, 10 + g % 90, 0, 0, 0, ?
+                    from generate_series(?, ?) g
+                    """, FIRST_ID, category.getCategoryId(), loaded + 1, products);
+            jdbcTemplate.execute("analyze products");
+            loaded = products;
+        }
+        productSearchIndex.rebuild();
+    }
+
+    private static double medianMillis(Supplier<?> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+        long[] nanos = new long[MEASURED];
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            query.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[MEASURED / 2] / 1_000_000.0;
+    }
+}
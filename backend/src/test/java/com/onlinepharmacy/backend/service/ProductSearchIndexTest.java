@@ -0,0 +1,113 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.ProductSearchDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index =
+            new ProductSearchIndex(productRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        index(doc(1L, "Cold relief syrup", "Contains ibuprofen for fever", null),
+                doc(2L, "Ibuprofen tablets", "Pain relief", null),
+                doc(3L, "Vitamin C", "Immune support", "ascorbic acid"));
+
+        assertThat(index.search("ibuprofen")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void documentsMatchingMoreTermsRankHigher() {
+        index(doc(1L, "Ibuprofen tablets", "Pain relief", null),
+                doc(2L, "Ibuprofen gel", "Topical pain relief", null),
+                doc(3L, "Aloe gel", "Soothing skin care", null));
+
+        assertThat(index.search("ibuprofen gel")).first().isEqualTo(2L);
+        assertThat(index.search("ibuprofen gel")).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void queryTermsAreStemmedLikeDocuments() {
+        index(doc(1L, "Coated tablet", "Film coated", null));
+
+        assertThat(index.search("tablets")).containsExactly(1L);
+        assertThat(index.search("coating")).containsExactly(1L);
+    }
+
+    @Test
+    void partialWordsExpandAsPrefixes() {
+        index(doc(1L, "Paracetamol", "Fever reducer", null),
+                doc(2L, "Paraffin oil", "Laxative", null),
+                doc(3L, "Aspirin", "Pain relief", null));
+
+        assertThat(index.search("parac")).containsExactly(1L);
+        assertThat(index.search("para")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void prefixExpansionIsCappedAtFiftyTerms() {
+        List<ProductSearchDocument> docs = new ArrayList<>();
+        for (long id = 0; id < 60; id++) {
+            docs.add(doc(id, String.format("vita%03d", id), "Supplement", null));
+        }
+        index(docs.toArray(ProductSearchDocument[]::new));
+
+        assertThat(index.search("vita"))
+                .hasSize(50)
+                .containsExactlyInAnyOrderElementsOf(LongStream.range(0, 50).boxed().toList());
+    }
+
+    @Test
+    void changedProductIsReindexed() {
+        index(doc(1L, "Aspirin", "Pain relief", null));
+
+        index(doc(1L, "Ibuprofen", "Pain relief", null));
+
+        assertThat(index.search("aspirin")).isEmpty();
+        assertThat(index.search("ibuprofen")).containsExactly(1L);
+    }
+
+    @Test
+    void deletedProductIsRemoved() {
+        index(doc(1L, "Aspirin", "Pain relief", null), doc(2L, "Aspirin gel", "Pain relief", null));
+
+        when(productRepository.findSearchDocuments(any())).thenReturn(List.of());
+        index.onProductChanged(new ProductChangedEvent(Set.of(1L)));
+
+        assertThat(index.search("aspirin")).containsExactly(2L);
+        assertThat(index.search("relief")).containsExactly(2L);
+    }
+
+    @Test
+    void misspelledWordIsCorrectedToCatalogWord() {
+        index(doc(1L, "Paracetamol", "Fever reducer", null));
+
+        assertThat(index.suggest("paracetmol")).isEqualTo("paracetamol");
+        assertThat(index.suggest("paracetamol")).isNull();
+    }
+
+    private void index(ProductSearchDocument... docs) {
+        when(productRepository.findSearchDocuments(any())).thenReturn(List.of(docs));
+        index.onProductChanged(ProductChangedEvent.of(
+                Arrays.stream(docs).map(ProductSearchDocument::productId).toList()));
+    }
+
+    private static ProductSearchDocument doc(Long id, String name, String description, String ingredients) {
+        return new ProductSearchDocument(id, name, description, ingredients);
+    }
+}
@@ -0,0 +1,89 @@
+package com.onlinepharmacy.backend.service;
+
+import com.onlinepharmacy.backend.payload.SuggestionDTO;
+import com.onlinepharmacy.backend.repositories.CategoryRepository;
+import com.onlinepharmacy.backend.repositories.OrderItemRepository;
+import com.onlinepharmacy.backend.repositories.ProductRepository;
+import com.onlinepharmacy.backend.repositories.projection.CategoryProductCount;
+import com.onlinepharmacy.backend.repositories.projection.ProductNameView;
+import com.onlinepharmacy.backend.repositories.projection.ProductSales;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestServiceTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final ProductSuggestService service =
+            new ProductSuggestService(productRepository, categoryRepository, orderItemRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(orderItemRepository.sumUnitsSoldByProduct()).thenReturn(List.of(new ProductSales(1L, 10L), new ProductSales(2L, 1L)));
+        when(productRepository.findAllNames()).thenReturn(List.of(
+                new ProductNameView(1L, "Pain Relief Gel", 100L),
+                new ProductNameView(2L, "Pain Balm", 100L)));
+        when(categoryRepository.countProductsByCategory()).thenReturn(List.of(
+                new CategoryProductCount(100L, "Pain Relief", 2L),
+                new CategoryProductCount(200L, "Pain Killers", 0L)));
+        service.rebuild();
+    }
+
+    @Test
+    void suggestionsAreRankedByWeight() {
+        assertThat(names(service.suggest("pain", 10)))
+                .containsExactly("Pain Relief Gel", "Pain Relief", "Pain Balm", "Pain Killers");
+        assertThat(names(service.suggest("relief", 10))).containsExactly("Pain Relief Gel", "Pain Relief");
+    }
+
+    @Test
+    void productMoveRefreshesOnlyItsOldAndNewCategory() {
+        when(orderItemRepository.sumUnitsSoldByProduct(any())).thenReturn(List.of());
+        when(productRepository.findNames(any())).thenReturn(List.of(new ProductNameView(2L, "Pain Balm", 200L)));
+        when(categoryRepository.countProductsByCategoryIdIn(Set.of(100L, 200L))).thenReturn(List.of(
+                new CategoryProductCount(100L, "Pain Relief", 1L),
+                new CategoryProductCount(200L, "Pain Killers", 5L)));
+
+        service.onProductChanged(ProductChangedEvent.of(2L));
+
+        verify(categoryRepository).countProductsByCategoryIdIn(Set.of(100L, 200L));
+        assertThat(names(service.suggest("pain", 10)))
+                .containsExactly("Pain Relief Gel", "Pain Killers", "Pain Relief", "Pain Balm");
+        verify(categoryRepository).countProductsByCategory();
+    }
+
+    @Test
+    void categoryChangeQueriesOnlyThatCategory() {
+        when(categoryRepository.countProductsByCategoryIdIn(Set.of(200L)))
+                .thenReturn(List.of(new CategoryProductCount(200L, "Analgesics", 0L)));
+
+        service.onCategoryChanged(new CategoryChangedEvent(200L));
+
+        verify(categoryRepository).countProductsByCategory();
+        assertThat(names(service.suggest("analg", 10))).containsExactly("Analgesics");
+        assertThat(names(service.suggest("pain k", 10))).isEmpty();
+    }
+
+    @Test
+    void deletedCategoryIsDropped() {
+        when(categoryRepository.countProductsByCategoryIdIn(Set.of(200L))).thenReturn(List.of());
+
+        service.onCategoryChanged(new CategoryChangedEvent(200L));
+
+        assertThat(names(service.suggest("pain", 10))).doesNotContain("Pain Killers");
+    }
+
+    private static List<String> names(List<SuggestionDTO> suggestions) {
+        return suggestions.stream().map(SuggestionDTO::getName).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.onlinepharmacy.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void splitsPlainFields() throws IOException {
+        assertThat(read("a,b,c\n1,,3\n")).containsExactly(List.of("a", "b", "c"), List.of("1", "", "3"));
+    }
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        String csv = "name,description\n"
+                + "\"Dolo, 650\",\"Take \"\"one\"\" tablet\nafter food\"\n";
+
+        assertThat(read(csv)).containsExactly(
+                List.of("name", "description"),
+                List.of("Dolo, 650", "Take \"one\" tablet\nafter food"));
+    }
+
+    @Test
+    void crlfEndsARecordOnce() throws IOException {
+        assertThat(read("a,b\r\n1,2\r\n")).containsExactly(List.of("a", "b"), List.of("1", "2"));
+    }
+
+    @Test
+    void bareCarriageReturnEndsARecord() throws IOException {
+        assertThat(read("a,b\r1,2")).containsExactly(List.of("a", "b"), List.of("1", "2"));
+    }
+
+    @Test
+    void quotedCrlfIsPartOfTheField() throws IOException {
+        assertThat(read("\"line1\r\nline2\",x\r\n")).containsExactly(List.of("line1\r\nline2", "x"));
+    }
+
+    @Test
+    void lastRecordNeedsNoTrailingNewline() throws IOException {
+        assertThat(read("a,\"b\"")).containsExactly(List.of("a", "b"));
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() {
+        assertThatThrownBy(() -> read("a,\"b\n")).isInstanceOf(IOException.class)
+                .hasMessage("Unterminated quoted field");
+    }
+
+    private static List<List<String>> read(String csv) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,41 @@
+package com.onlinepharmacy.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectBufferCacheTest {
+
+    @Test
+    void byteBoundIsCappedByTheDirectMemoryLimit() {
+        DirectBufferCache<String> cache = new DirectBufferCache<>("test", 64 * 1024 * 1024, 512 * 1024, 1024 * 1024);
+
+        assertThat(cache.getMaximumBytes()).isEqualTo(512 * 1024);
+        assertThat(cache.accepts(512 * 1024)).isTrue();
+        assertThat(new DirectBufferCache<String>("test", 4096, 1024).getMaximumBytes()).isEqualTo(4096);
+        assertThat(DirectBufferCache.maxDirectMemory()).isPositive();
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedByBytes() {
+        DirectBufferCache<String> cache = new DirectBufferCache<>("test", 300, 200, Long.MAX_VALUE / 2);
+        cache.put("a", filled(100));
+        cache.put("b", filled(100));
+        cache.get("a");
+        cache.put("c", filled(150));
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c").remaining()).isEqualTo(150);
+        assertThat(cache.getBytes()).isEqualTo(250);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    private static ByteBuffer filled(int size) {
+        ByteBuffer buffer = DirectBufferCache.allocate(size);
+        buffer.put(new byte[size]).flip();
+        return buffer;
+    }
+}
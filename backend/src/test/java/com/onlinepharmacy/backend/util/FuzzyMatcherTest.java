@@ -0,0 +1,94 @@
+package com.onlinepharmacy.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyMatcherTest {
+
+    @Test
+    void distanceCountsEditsAndTranspositions() {
+        assertThat(FuzzyMatcher.boundedDistance("aspirin", "aspirin", 2)).isZero();
+        assertThat(FuzzyMatcher.boundedDistance("aspirn", "aspirin", 2)).isEqualTo(1);
+        assertThat(FuzzyMatcher.boundedDistance("asprin", "aspirin", 2)).isEqualTo(1);
+        assertThat(FuzzyMatcher.boundedDistance("abdc", "abcd", 2)).isEqualTo(1);
+        assertThat(FuzzyMatcher.boundedDistance("kitten", "sitting", 3)).isEqualTo(3);
+    }
+
+    @Test
+    void distanceStopsAtTheBound() {
+        assertThat(FuzzyMatcher.boundedDistance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(FuzzyMatcher.boundedDistance("abcdef", "uvwxyz", 2)).isEqualTo(3);
+        assertThat(FuzzyMatcher.boundedDistance("gel", "gelatine", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void phoneticKeyFoldsSpellingsThatSoundAlike() {
+        assertThat(FuzzyMatcher.phoneticKey("pharmacy")).isEqualTo(FuzzyMatcher.phoneticKey("farmasy"));
+        assertThat(FuzzyMatcher.phoneticKey("Tablet")).isEqualTo(FuzzyMatcher.phoneticKey("tablit"));
+        assertThat(FuzzyMatcher.phoneticKey("tablet")).isNotEqualTo(FuzzyMatcher.phoneticKey("table"));
+    }
+
+    @Test
+    void suggestsClosestWordsFirst() {
+        FuzzyMatcher matcher = matcher("tablet", "tablets", "table", "paracetamol");
+
+        assertThat(matcher.suggest("tablt", 5)).containsExactly("tablet", "table", "tablets");
+        assertThat(matcher.suggest("paracetmol", 5)).containsExactly("paracetamol");
+    }
+
+    @Test
+    void editBudgetGrowsWithWordLength() {
+        FuzzyMatcher matcher = matcher("gel", "aspirin", "ibuprofen");
+
+        assertThat(matcher.suggest("gl", 5)).containsExactly("gel");
+        assertThat(matcher.suggest("g", 5)).isEmpty();
+        assertThat(matcher.suggest("aspn", 5)).isEmpty();
+        assertThat(matcher.suggest("asprn", 5)).containsExactly("aspirin");
+        assertThat(matcher.suggest("ibprfen", 5)).containsExactly("ibuprofen");
+    }
+
+    @Test
+    void soundAlikeWordsGetOneExtraEdit() {
+        FuzzyMatcher matcher = matcher("pharmacy", "pormaty");
+
+        assertThat(FuzzyMatcher.boundedDistance("farmasy", "pharmacy", 3)).isEqualTo(3);
+        assertThat(matcher.suggest("farmasy", 5)).containsExactly("pharmacy");
+    }
+
+    @Test
+    void wordsSharingFewTrigramsAreNotConsidered() {
+        FuzzyMatcher matcher = matcher("paracetamol", "parachute", "paraffin");
+
+        assertThat(matcher.suggest("paracetmol", 5)).containsExactly("paracetamol");
+        assertThat(matcher.suggest("zzzzzz", 5)).isEmpty();
+    }
+
+    @Test
+    void moreFrequentWordWinsATie() {
+        FuzzyMatcher matcher = matcher("cold", "colt", "colt");
+
+        assertThat(matcher.suggest("colx", 1)).containsExactly("colt");
+    }
+
+    @Test
+    void removeDropsWordOnlyAfterLastOccurrence() {
+        FuzzyMatcher matcher = matcher("aspirin", "aspirin");
+
+        matcher.remove("aspirin");
+        assertThat(matcher.contains("aspirin")).isTrue();
+        assertThat(matcher.suggest("aspirn", 5)).containsExactly("aspirin");
+
+        matcher.remove("aspirin");
+        assertThat(matcher.contains("aspirin")).isFalse();
+        assertThat(matcher.suggest("aspirn", 5)).isEmpty();
+    }
+
+    private static FuzzyMatcher matcher(String... words) {
+        FuzzyMatcher matcher = new FuzzyMatcher();
+        List.of(words).forEach(matcher::add);
+        return matcher;
+    }
+}
@@ -0,0 +1,83 @@
+package com.onlinepharmacy.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTrieTest {
+
+    @Test
+    void topKReturnsHeaviestValuesUnderPrefix() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.insert("paracetamol", "paracetamol", 5);
+        trie.insert("paraffin", "paraffin", 9);
+        trie.insert("parasite", "parasite", 1);
+        trie.insert("aspirin", "aspirin", 100);
+
+        assertThat(trie.topK("para", 2)).containsExactly("paraffin", "paracetamol");
+        assertThat(trie.topK("para", 10)).containsExactly("paraffin", "paracetamol", "parasite");
+        assertThat(trie.topK("", 1)).containsExactly("aspirin");
+    }
+
+    @Test
+    void prefixMayEndInsideACompressedLabel() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.insert("ibuprofen", "ibuprofen", 1);
+
+        assertThat(trie.topK("ibu", 5)).containsExactly("ibuprofen");
+        assertThat(trie.topK("ibuprofen", 5)).containsExactly("ibuprofen");
+        assertThat(trie.topK("ibx", 5)).isEmpty();
+        assertThat(trie.topK("ibuprofens", 5)).isEmpty();
+    }
+
+    @Test
+    void splittingANodeKeepsBothBranches() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.insert("tablet", "tablet", 1);
+        trie.insert("table", "table", 2);
+        trie.insert("tab", "tab", 3);
+
+        assertThat(trie.topK("tab", 5)).containsExactly("tab", "table", "tablet");
+        assertThat(trie.topK("tabl", 5)).containsExactly("table", "tablet");
+        assertThat(trie.size()).isEqualTo(3);
+    }
+
+    @Test
+    void valueReachableFromSeveralKeysIsReturnedOnce() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.insert("dolo 650 tablet", "Dolo 650 Tablet", 4);
+        trie.insert("dolo 650", "Dolo 650 Tablet", 4);
+
+        assertThat(trie.topK("dolo", 5)).containsExactly("Dolo 650 Tablet");
+    }
+
+    @Test
+    void removeRecomputesWeightsAndCompactsNodes() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.insert("paracetamol", "paracetamol", 5);
+        trie.insert("paraffin", "paraffin", 9);
+        trie.insert("parasite", "parasite", 1);
+
+        trie.remove("paraffin", "paraffin");
+        trie.remove("paraffin", "paraffin");
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.topK("para", 1)).containsExactly("paracetamol");
+        assertThat(trie.topK("paraf", 5)).isEmpty();
+
+        trie.remove("paracetamol", "paracetamol");
+        assertThat(trie.topK("par", 5)).containsExactly("parasite");
+        assertThat(trie.topK("parasite", 5)).containsExactly("parasite");
+    }
+
+    @Test
+    void reinsertingUpdatesWeightWithoutGrowing() {
+        RadixTrie<String> trie = new RadixTrie<>();
+        trie.insert("cold", "cold", 1);
+        trie.insert("cough", "cough", 2);
+        trie.insert("cold", "cold", 3);
+
+        assertThat(trie.size()).isEqualTo(2);
+        assertThat(trie.topK("c", 1)).containsExactly("cold");
+    }
+}
@@ -0,0 +1,36 @@
+package com.onlinepharmacy.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTest {
+
+    @Test
+    void tokenizesOnNonAlphanumericsAndFoldsCaseAndAccents() {
+        assertThat(TextAnalyzer.tokenize("Crème-Solaire SPF50, 200ml")).containsExactly("creme", "solaire", "spf50", "200ml");
+        assertThat(TextAnalyzer.tokenize("  ")).isEmpty();
+        assertThat(TextAnalyzer.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void dropsStopWords() {
+        assertThat(TextAnalyzer.analyze("Tablets for the relief of pain")).containsExactly("tablet", "relief", "pain");
+    }
+
+    @Test
+    void stemsPluralsAndVerbForms() {
+        assertThat(TextAnalyzer.stem("tablets")).isEqualTo("tablet");
+        assertThat(TextAnalyzer.stem("allergies")).isEqualTo("allergy");
+        assertThat(TextAnalyzer.stem("coated")).isEqualTo("coat");
+        assertThat(TextAnalyzer.stem("relieving")).isEqualTo("reliev");
+        assertThat(TextAnalyzer.stem("relieve")).isEqualTo("reliev");
+    }
+
+    @Test
+    void leavesShortWordsAndDrugStrengthsAlone() {
+        assertThat(TextAnalyzer.stem("gas")).isEqualTo("gas");
+        assertThat(TextAnalyzer.stem("b12")).isEqualTo("b12");
+        assertThat(TextAnalyzer.stem("virus")).isEqualTo("virus");
+    }
+}
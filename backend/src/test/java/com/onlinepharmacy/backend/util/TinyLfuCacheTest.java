@@ -0,0 +1,156 @@
+package com.onlinepharmacy.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TinyLfuCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private TinyLfuCache<Long, String> cache(int maximumSize, long ttlSeconds) {
+        return new TinyLfuCache<>("test", maximumSize, ttlSeconds, UnaryOperator.identity(), now::get);
+    }
+
+    @Test
+    void oneHitKeysDoNotDisplaceTheMainRegion() {
+        TinyLfuCache<Long, String> cache = cache(100, 0);
+        for (long key = 0; key < 100; key++) {
+            cache.put(key, "v" + key);
+        }
+        for (long key = 1000; key < 1100; key++) {
+            cache.put(key, "v" + key);
+        }
+
+        for (long key = 0; key < 99; key++) {
+            assertThat(cache.get(key)).isEqualTo("v" + key);
+        }
+        assertThat(cache.size()).isEqualTo(100);
+    }
+
+    @Test
+    void frequentlyRequestedKeyIsAdmittedOverColdVictim() {
+        TinyLfuCache<Long, String> cache = cache(100, 0);
+        for (long key = 0; key < 100; key++) {
+            cache.put(key, "v" + key);
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.get(2000L);
+        }
+        cache.put(2000L, "hot");
+        cache.put(3000L, "pushes the hot key out of the window");
+
+        assertThat(cache.get(2000L)).isEqualTo("hot");
+        assertThat(cache.getEvictions()).isPositive();
+    }
+
+    @Test
+    void sizeNeverExceedsMaximum() {
+        TinyLfuCache<Long, String> cache = cache(50, 0);
+        for (long key = 0; key < 10_000; key++) {
+            cache.get(key % 500);
+            cache.put(key % 500, "v");
+            assertThat(cache.size()).isLessThanOrEqualTo(50);
+        }
+        assertThat(cache.getEvictions()).isPositive();
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        TinyLfuCache<Long, String> cache = cache(10, 10);
+        cache.put(1L, "a");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertThat(cache.get(1L)).isEqualTo("a");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getOrLoad(1L, key -> "b")).isEqualTo("b");
+        assertThat(cache.get(1L)).isEqualTo("b");
+    }
+
+    @Test
+    void loadedValueIsCached() {
+        TinyLfuCache<Long, String> cache = cache(10, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(1L, key -> "v" + loads.incrementAndGet());
+        cache.getOrLoad(1L, key -> "v" + loads.incrementAndGet());
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(1L)).isEqualTo("v1");
+    }
+
+    @Test
+    void invalidationDuringLoadKeepsStaleValueOutOfCache() {
+        TinyLfuCache<Long, String> cache = cache(10, 0);
+
+        String loaded = cache.getOrLoad(1L, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void invalidateAllDuringConcurrentLoadKeepsStaleValueOutOfCache() throws Exception {
+        TinyLfuCache<Long, String> cache = cache(10, 0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        CompletableFuture<String> load = CompletableFuture.supplyAsync(() -> cache.getOrLoad(1L, key -> {
+            loading.countDown();
+            await(invalidated);
+            return "stale";
+        }));
+        loading.await(5, TimeUnit.SECONDS);
+        cache.invalidateAll();
+        invalidated.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getOrLoad(1L, key -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get(1L)).isEqualTo("fresh");
+    }
+
+    @Test
+    void failedLoadDoesNotBlockLaterLoads() {
+        TinyLfuCache<Long, String> cache = cache(10, 0);
+
+        assertThatThrownBy(() -> cache.getOrLoad(1L, key -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.getOrLoad(1L, key -> "v")).isEqualTo("v");
+        assertThat(cache.get(1L)).isEqualTo("v");
+    }
+
+    @Test
+    void callersReceiveCopies() {
+        TinyLfuCache<Long, StringBuilder> cache = new TinyLfuCache<>("test", 10, 0, StringBuilder::new);
+
+        StringBuilder loaded = cache.getOrLoad(1L, key -> new StringBuilder("a"));
+        loaded.append("-changed by loader caller");
+        cache.get(1L).append("-changed by reader");
+
+        assertThat(cache.get(1L)).hasToString("a");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}